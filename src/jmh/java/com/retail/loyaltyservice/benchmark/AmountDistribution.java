@@ -0,0 +1,28 @@
+package com.retail.loyaltyservice.benchmark;
+
+import java.util.Random;
+
+/**
+ * Order amount distributions, in cents, for benchmarks that are sensitive to which earning thresholds an order
+ * crosses.
+ */
+public enum AmountDistribution {
+
+    UNDER_FIFTY(0, 5_000),
+    FIFTY_TO_HUNDRED(5_000, 10_000),
+    OVER_HUNDRED(10_000, 100_000),
+    MIXED(0, 30_000);
+
+    private final int minCents;
+
+    private final int maxCents;
+
+    AmountDistribution(int minCents, int maxCents) {
+        this.minCents = minCents;
+        this.maxCents = maxCents;
+    }
+
+    public long nextAmountInCents(Random random) {
+        return minCents + random.nextInt(maxCents - minCents);
+    }
+}
@@ -0,0 +1,52 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+    static final LocalDate FIRST_ORDER_DATE = LocalDate.of(2020, 1, 1);
+
+    static final int ORDER_DAYS = 3 * 365;
+
+    private BenchmarkData() {
+    }
+
+    static Customer customer() {
+        return Customer.builder()
+                .id(1L)
+                .name("John Doe")
+                .email("johndoe@yahoo.com")
+                .address("Cochin, Kerala")
+                .loyaltyPoints(270)
+                .build();
+    }
+
+    /**
+     * Orders of one customer spread evenly at random over {@link #ORDER_DAYS} days from {@link #FIRST_ORDER_DATE}.
+     */
+    static List<Order> orders(Customer customer, int count, AmountDistribution amounts, long seed) {
+        Random random = new Random(seed);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long amountInCents = amounts.nextAmountInCents(random);
+            orders.add(Order.builder()
+                    .id(i + 1L)
+                    .totalAmount(BigDecimal.valueOf(amountInCents, 2))
+                    .loyaltyPoints((int) (amountInCents / 100))
+                    .customer(customer)
+                    .orderDate(FIRST_ORDER_DATE.plusDays(random.nextInt(ORDER_DAYS)))
+                    .build());
+        }
+        return orders;
+    }
+}
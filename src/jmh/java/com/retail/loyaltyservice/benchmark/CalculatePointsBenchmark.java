@@ -0,0 +1,137 @@
+package com.retail.loyaltyservice.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.retail.loyaltyservice.util.EarningRules;
+import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the decimal points calculation with the fixed-point one, from a decimal amount and from an amount
+ * already held in cents, and both with the compiled earning rules: the default two tiers, and eight tiers with
+ * category multipliers and promotions over orders of mixed categories and dates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OperationsPerInvocation(CalculatePointsBenchmark.AMOUNTS)
+public class CalculatePointsBenchmark {
+
+    static final int AMOUNTS = 1024;
+
+    private static final int SPEND_MULTIPLIER_OVER_FIFTY = 1;
+
+    private static final int SPEND_MULTIPLIER_OVER_HUNDRED = 2;
+
+    private static final EarningRules TWO_TIERS = EarningRules.compile("50:" + SPEND_MULTIPLIER_OVER_FIFTY
+            + ",100:" + SPEND_MULTIPLIER_OVER_HUNDRED, "", "");
+
+    private static final EarningRules EIGHT_TIERS = EarningRules.compile(
+            "0:1,25:1,50:2,75:2,100:3,250:4,500:5,1000:6", "grocery:2,electronics:3,fashion:2",
+            "2023-03-01/2023-03-31:2,2023-06-15/2023-07-15:3,2023-11-24/2023-11-27:5");
+
+    private static final String[] CATEGORIES = { null, "grocery", "electronics", "fashion", "toys" };
+
+    private static final LocalDate FIRST_ORDER_DATE = LocalDate.of(2023, 1, 1);
+
+    @Param
+    private AmountDistribution amountDistribution;
+
+    private final BigDecimal[] amounts = new BigDecimal[AMOUNTS];
+
+    private final long[] amountsInCents = new long[AMOUNTS];
+
+    private final String[] categories = new String[AMOUNTS];
+
+    private final LocalDate[] orderDates = new LocalDate[AMOUNTS];
+
+    @Setup
+    public void setUp() {
+        // Without Spring Boot logback defaults to DEBUG, the application runs at INFO.
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+        Random random = new Random(42);
+        for (int i = 0; i < AMOUNTS; i++) {
+            amountsInCents[i] = amountDistribution.nextAmountInCents(random);
+            amounts[i] = BigDecimal.valueOf(amountsInCents[i], 2);
+            categories[i] = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            orderDates[i] = FIRST_ORDER_DATE.plusDays(random.nextInt(365));
+        }
+    }
+
+    @Benchmark
+    public long exactDecimal() {
+        long points = 0;
+        for (BigDecimal amount : amounts) {
+            points += LoyaltyPointsUtil.calculatePointsExact(amount, SPEND_MULTIPLIER_OVER_FIFTY,
+                    SPEND_MULTIPLIER_OVER_HUNDRED);
+        }
+        return points;
+    }
+
+    @Benchmark
+    public long fixedPointFromDecimal() {
+        long points = 0;
+        for (BigDecimal amount : amounts) {
+            points += LoyaltyPointsUtil.calculatePoints(amount, SPEND_MULTIPLIER_OVER_FIFTY,
+                    SPEND_MULTIPLIER_OVER_HUNDRED);
+        }
+        return points;
+    }
+
+    @Benchmark
+    public long fixedPointFromCents() {
+        long points = 0;
+        for (long amountInCents : amountsInCents) {
+            points += LoyaltyPointsUtil.calculatePointsInCents(amountInCents, SPEND_MULTIPLIER_OVER_FIFTY,
+                    SPEND_MULTIPLIER_OVER_HUNDRED);
+        }
+        return points;
+    }
+
+    @Benchmark
+    public long twoTierRulesFromDecimal() {
+        long points = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            points += TWO_TIERS.calculatePoints(amounts[i], null, orderDates[i]);
+        }
+        return points;
+    }
+
+    @Benchmark
+    public long twoTierRulesFromCents() {
+        long points = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            points += TWO_TIERS.calculatePointsInCents(amountsInCents[i], null, orderDates[i]);
+        }
+        return points;
+    }
+
+    @Benchmark
+    public long eightTierRulesFromDecimal() {
+        long points = 0;
+        for (int i = 0; i < AMOUNTS; i++) {
+            points += EIGHT_TIERS.calculatePoints(amounts[i], categories[i], orderDates[i]);
+        }
+        return points;
+    }
+}
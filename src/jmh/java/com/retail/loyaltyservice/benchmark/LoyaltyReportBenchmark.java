@@ -0,0 +1,115 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.LoyaltyReportRequest;
+import com.retail.loyaltyservice.service.LoyaltyReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-customer report of all customers for twelve months with a partial month at either end, on report pools of
+ * 1 to 8 workers. Speedup is bounded by the cores of the machine, compare runs with the number of cores of the
+ * target hosts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoyaltyReportBenchmark {
+
+    private static final int CUSTOMERS = 10_000;
+
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2022, 1);
+
+    private static final int MONTHS = 24;
+
+    private static final LoyaltyReportRequest REQUEST = LoyaltyReportRequest.builder()
+            .allCustomers(true)
+            .startDate(LocalDate.of(2022, 7, 15))
+            .endDate(LocalDate.of(2023, 7, 14))
+            .build();
+
+    @Param({ "1", "2", "4", "8" })
+    private int parallelism;
+
+    private ConfigurableApplicationContext context;
+
+    private LoyaltyReportService loyaltyReportService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:report-benchmark", "logging.level.root=WARN",
+                        "spring.datasource.hikari.maximum-pool-size=" + Math.max(10, parallelism + 2),
+                        "loyalty.service.report.parallelism=" + parallelism)
+                .run();
+        loyaltyReportService = context.getBean(LoyaltyReportService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customers.add(new Object[] { "John Doe", "Cochin, Kerala" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"customers\" (\"name\", \"address\", \"loyalty_points\") "
+                + "VALUES (?, ?, 0)", customers);
+        List<Long> customerIds = jdbcTemplate.queryForList("SELECT \"id\" FROM \"customers\"", Long.class);
+
+        // An order on the 10th and the 20th of every month, and the monthly rollup of them
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> rollup = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            for (int month = 0; month < MONTHS; month++) {
+                YearMonth yearMonth = FIRST_MONTH.plusMonths(month);
+                orders.add(new Object[] { customerId, Date.valueOf(yearMonth.atDay(10)) });
+                orders.add(new Object[] { customerId, Date.valueOf(yearMonth.atDay(20)) });
+                rollup.add(new Object[] { customerId, yearMonth.getYear() * 100 + yearMonth.getMonthValue() });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"orders\" (\"id\", \"total_amount\", \"loyalty_points\", "
+                + "\"reference_id\", \"order_date\") VALUES (NEXT VALUE FOR \"orders_seq\", 120, 90, ?, ?)", orders);
+        jdbcTemplate.batchUpdate("INSERT INTO \"customer_monthly_points\" (\"customer_id\", \"period\", \"points\") "
+                + "VALUES (?, ?, 180)", rollup);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int reportAllCustomers(Blackhole blackhole) {
+        AtomicInteger customers = new AtomicInteger();
+        loyaltyReportService.report(REQUEST, report -> {
+            blackhole.consume(report);
+            customers.incrementAndGet();
+        });
+        return customers.get();
+    }
+}
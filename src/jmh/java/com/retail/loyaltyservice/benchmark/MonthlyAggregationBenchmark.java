@@ -0,0 +1,98 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.model.MonthlyPointsAggregate;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading every order of a customer and aggregating in memory against the grouped projection query, for
+ * a twelve month summary of a customer whose orders are spread over two years.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MonthlyAggregationBenchmark {
+
+    private static final LocalDate FIRST_ORDER_DATE = LocalDate.of(2022, 1, 1);
+
+    private static final LocalDate START_DATE = LocalDate.of(2022, 7, 1);
+
+    private static final LocalDate END_DATE = LocalDate.of(2023, 6, 30);
+
+    @Param({ "10", "1000", "100000" })
+    private int ordersPerCustomer;
+
+    private ConfigurableApplicationContext context;
+
+    private OrderRepository orderRepo;
+
+    private Customer customer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:aggregation-benchmark", "logging.level.root=WARN")
+                .run();
+        orderRepo = context.getBean(OrderRepository.class);
+        customer = context.getBean(CustomerRepository.class)
+                .save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(ordersPerCustomer);
+        for (int i = 0; i < ordersPerCustomer; i++) {
+            LocalDate orderDate = FIRST_ORDER_DATE.plusDays(random.nextInt(730));
+            rows.add(new Object[] { 120, 90, customer.getId(), Date.valueOf(orderDate) });
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO \"orders\" (\"id\", \"total_amount\", \"loyalty_points\", \"reference_id\", "
+                        + "\"order_date\") VALUES (NEXT VALUE FOR \"orders_seq\", ?, ?, ?, ?)",
+                rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MonthlyLoyaltyPoints> findByCustomerThenAggregate() {
+        return LoyaltyPointsUtil.getMonthlyLoyaltyPoints(orderRepo.findByCustomer(customer), START_DATE, END_DATE);
+    }
+
+    @Benchmark
+    public List<MonthlyPointsAggregate> groupedProjectionQuery() {
+        return orderRepo.aggregateMonthlyLoyaltyPoints(customer.getId(), START_DATE, END_DATE);
+    }
+}
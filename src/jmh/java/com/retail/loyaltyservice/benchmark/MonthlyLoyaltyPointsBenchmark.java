@@ -0,0 +1,56 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory monthly aggregation of the orders of one customer, by order count and width of the summary range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MonthlyLoyaltyPointsBenchmark {
+
+    @Param({ "100", "10000", "1000000" })
+    private int orderCount;
+
+    @Param({ "1", "12", "36" })
+    private int rangeMonths;
+
+    private List<Order> orders;
+
+    private LocalDate startDate;
+
+    private LocalDate endDate;
+
+    @Setup
+    public void setUp() {
+        orders = BenchmarkData.orders(BenchmarkData.customer(), orderCount, AmountDistribution.MIXED, 42);
+        startDate = BenchmarkData.FIRST_ORDER_DATE;
+        endDate = startDate.plusMonths(rangeMonths).minusDays(1);
+    }
+
+    @Benchmark
+    public List<MonthlyLoyaltyPoints> getMonthlyLoyaltyPoints() {
+        return LoyaltyPointsUtil.getMonthlyLoyaltyPoints(orders, startDate, endDate);
+    }
+}
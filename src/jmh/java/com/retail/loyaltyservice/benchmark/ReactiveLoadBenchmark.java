@@ -0,0 +1,210 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires one burst of concurrent clients at the MVC or the reactive loyalty
+ * endpoints per invocation. Next to the time to serve the burst it prints the peak
+ * of busy Tomcat workers, JVM threads, open HTTP connections and database
+ * connections in use. Each client is its own HTTP connection, so the process needs
+ * about two file descriptors per client, the server and the client share the JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ReactiveLoadBenchmark {
+
+    private static final int CUSTOMERS = 1_000;
+
+    private static final int ORDERS_PER_CUSTOMER = 20;
+
+    @Param({ "mvc", "reactive" })
+    private String api;
+
+    @Param({ "balance", "summary" })
+    private String endpoint;
+
+    @Param({ "10000" })
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+
+    private ExecutorService clientExecutor;
+
+    private HttpClient httpClient;
+
+    private List<HttpRequest> requests;
+
+    private ScheduledExecutorService sampler;
+
+    private ThreadPoolExecutor tomcatWorkers;
+
+    private AbstractProtocol<?> tomcatProtocol;
+
+    private HikariDataSource hikariDataSource;
+
+    private MeterRegistry meterRegistry;
+
+    // Peaks of the last burst, written by the sampler thread
+    private volatile long busyWorkers;
+
+    private volatile long jvmThreads;
+
+    private volatile long httpConnections;
+
+    private volatile long dbConnections;
+
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        context = new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:reactive-benchmark",
+                        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-benchmark", "server.tomcat.accept-count=4096",
+                        "server.tomcat.max-connections=" + (clients + 1_000), "logging.level.root=WARN")
+                .run();
+        TomcatWebServer webServer = (TomcatWebServer) ((ServletWebServerApplicationContext) context).getWebServer();
+        tomcatProtocol = (AbstractProtocol<?>) webServer.getTomcat().getConnector().getProtocolHandler();
+        tomcatWorkers = (ThreadPoolExecutor) tomcatProtocol.getExecutor();
+        hikariDataSource = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+        meterRegistry = context.getBean(MeterRegistry.class);
+        sampler = Executors.newSingleThreadScheduledExecutor();
+
+        long[] customerIds = seed();
+        String baseUrl = "http://localhost:" + webServer.getPort() + ("mvc".equals(api) ? "/api/v1/loyalty"
+                : "/api/v1/reactive/loyalty");
+        requests = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            long customerId = customerIds[i % customerIds.length];
+            requests.add(HttpRequest.newBuilder(URI.create("balance".equals(endpoint)
+                    ? baseUrl + "/" + customerId
+                    : baseUrl + "/summary?customerId=" + customerId + "&startDate=2021-03-15&endDate=2022-03-14"))
+                    .timeout(Duration.ofMinutes(1))
+                    .GET()
+                    .build());
+        }
+        // A small fixed pool, so that client threads do not grow with the number of clients
+        clientExecutor = Executors.newFixedThreadPool(2);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofMinutes(1))
+                .build();
+    }
+
+    private long[] seed() {
+        CustomerRepository customerRepo = context.getBean(CustomerRepository.class);
+        long[] customerIds = new long[CUSTOMERS];
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(CUSTOMERS * ORDERS_PER_CUSTOMER);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerIds[i] = customerRepo.save(Customer.builder()
+                    .name("John Doe")
+                    .address("Cochin, Kerala")
+                    .loyaltyPoints(90 * ORDERS_PER_CUSTOMER)
+                    .build()).getId();
+            for (int j = 0; j < ORDERS_PER_CUSTOMER; j++) {
+                LocalDate orderDate = BenchmarkData.FIRST_ORDER_DATE.plusDays(random.nextInt(BenchmarkData.ORDER_DAYS));
+                rows.add(new Object[] { 120, 90, customerIds[i], Date.valueOf(orderDate) });
+            }
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO \"orders\" (\"id\", \"total_amount\", \"loyalty_points\", \"reference_id\", "
+                        + "\"order_date\") VALUES (NEXT VALUE FOR \"orders_seq\", ?, ?, ?, ?)",
+                rows);
+        return customerIds;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sampler.shutdownNow();
+        clientExecutor.shutdownNow();
+        context.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeaks() {
+        System.out.printf("peak busy workers %d, JVM threads %d, HTTP connections %d, DB connections %d, failures %d%n",
+                busyWorkers, jvmThreads, httpConnections, dbConnections, failures.get());
+    }
+
+    @Benchmark
+    public void burst() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        busyWorkers = 0;
+        httpConnections = 0;
+        dbConnections = 0;
+        failures.set(0);
+        ScheduledFuture<?> sampling = sampler.scheduleAtFixedRate(() -> {
+            busyWorkers = Math.max(busyWorkers, tomcatWorkers.getActiveCount());
+            httpConnections = Math.max(httpConnections, tomcatProtocol.getConnectionCount());
+            dbConnections = Math.max(dbConnections, hikariDataSource.getHikariPoolMXBean().getActiveConnections()
+                    + (long) meterRegistry.get("r2dbc.pool.acquired").gauge().value());
+        }, 0, 1, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[clients];
+        for (int i = 0; i < clients; i++) {
+            responses[i] = httpClient.sendAsync(requests.get(i), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, ex) -> {
+                        if (ex != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+
+        sampling.cancel(false);
+        jvmThreads = threads.getPeakThreadCount();
+    }
+}
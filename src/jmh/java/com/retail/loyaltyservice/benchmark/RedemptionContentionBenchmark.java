@@ -0,0 +1,112 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PointsRedemption;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderService;
+import com.retail.loyaltyservice.service.PointsRedemptionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Orders and redemptions racing for the rows of a few customers, 4 threads
+ * creating orders and 4 redeeming points. With one customer every operation waits
+ * for the lock of the same row; with more customers the contention spreads. The
+ * balances start high enough that redemptions never run out of points.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class RedemptionContentionBenchmark {
+
+    private static final int OPENING_BALANCE = 1_000_000_000;
+
+    @Param({ "1", "16" })
+    private int customers;
+
+    private ConfigurableApplicationContext context;
+
+    private OrderService orderService;
+
+    private PointsRedemptionService pointsRedemptionService;
+
+    private long[] customerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN")
+                .run();
+        orderService = context.getBean(OrderService.class);
+        pointsRedemptionService = context.getBean(PointsRedemptionService.class);
+        CustomerService customerService = context.getBean(CustomerService.class);
+        customerIds = new long[customers];
+        for (int i = 0; i < customers; i++) {
+            customerIds[i] = customerService.create(Customer.builder()
+                    .name("John Doe")
+                    .address("Cochin, Kerala")
+                    .loyaltyPoints(OPENING_BALANCE)
+                    .build()).getId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        long customerId(long[] customerIds) {
+            return customerIds[random.nextInt(customerIds.length)];
+        }
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public Order earn(Client client) {
+        return orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(client.customerId(customerIds)).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .build());
+    }
+
+    @Benchmark
+    @Group("contended")
+    @GroupThreads(4)
+    public PointsRedemption redeem(Client client) {
+        return pointsRedemptionService.redeem(client.customerId(customerIds), 50);
+    }
+}
@@ -0,0 +1,100 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the order and summary responses, with the same modules as the application.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    private ObjectWriter writer;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        writer = new ObjectMapper().registerModule(new JavaTimeModule()).writer();
+        order = BenchmarkData.orders(BenchmarkData.customer(), 1, AmountDistribution.MIXED, 42).get(0);
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrdersState {
+
+        @Param({ "1", "100", "10000" })
+        private int orderCount;
+
+        private List<Order> orders;
+
+        @Setup
+        public void setUp() {
+            orders = BenchmarkData.orders(BenchmarkData.customer(), orderCount, AmountDistribution.MIXED, 42);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SummaryState {
+
+        @Param({ "1", "12", "36" })
+        private int summaryMonths;
+
+        private LoyaltySummary loyaltySummary;
+
+        @Setup
+        public void setUp() {
+            Customer customer = BenchmarkData.customer();
+            LocalDate startDate = BenchmarkData.FIRST_ORDER_DATE;
+            List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = LoyaltyPointsUtil.getMonthlyLoyaltyPoints(
+                    BenchmarkData.orders(customer, 10_000, AmountDistribution.MIXED, 42), startDate,
+                    startDate.plusMonths(summaryMonths).minusDays(1));
+            loyaltySummary = LoyaltySummary.builder()
+                    .customer(customer)
+                    .monthlyLoyaltyPoints(monthlyLoyaltyPoints)
+                    .totalPoints(customer.getLoyaltyPoints())
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public byte[] order() throws JsonProcessingException {
+        return writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] ordersOfCustomer(OrdersState state) throws JsonProcessingException {
+        return writer.writeValueAsBytes(state.orders);
+    }
+
+    @Benchmark
+    public byte[] loyaltySummary(SummaryState state) throws JsonProcessingException {
+        return writer.writeValueAsBytes(state.loyaltySummary);
+    }
+}
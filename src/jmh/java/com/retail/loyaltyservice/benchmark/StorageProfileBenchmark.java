@@ -0,0 +1,138 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.service.LoyaltyService;
+import com.retail.loyaltyservice.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order creation and summary throughput of the default in-memory database against
+ * the file database of the prod profile, with several threads sharing the
+ * connection pool. See {@link StartupBenchmark} for startup times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StorageProfileBenchmark {
+
+    private static final int CUSTOMERS = 100;
+
+    private static final int ORDERS_PER_CUSTOMER = 20;
+
+    @Param({ "default", "prod" })
+    private String profile;
+
+    private Path storageDir;
+
+    private ConfigurableApplicationContext context;
+
+    private OrderService orderService;
+
+    private LoyaltyService loyaltyService;
+
+    private long[] customerIds;
+
+    /**
+     * Starts the application in the given profile, prod keeps its database in the
+     * given directory.
+     */
+    static ConfigurableApplicationContext start(String profile, Path storageDir) {
+        return new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .properties("logging.level.root=WARN")
+                .run("--loyalty.service.storage.path=" + storageDir.resolve("loyalty"));
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storageDir = Files.createTempDirectory("storage-benchmark");
+        context = start(profile, storageDir);
+        orderService = context.getBean(OrderService.class);
+        loyaltyService = context.getBean(LoyaltyService.class);
+        CustomerRepository customerRepo = context.getBean(CustomerRepository.class);
+        customerIds = new long[CUSTOMERS];
+        Client client = new Client();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerIds[i] = customerRepo.save(Customer.builder()
+                    .name("John Doe")
+                    .address("Cochin, Kerala")
+                    .build()).getId();
+            for (int j = 0; j < ORDERS_PER_CUSTOMER; j++) {
+                createOrder(customerIds[i], client.orderDate());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(storageDir);
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        long customerId(long[] customerIds) {
+            return customerIds[random.nextInt(customerIds.length)];
+        }
+
+        LocalDate orderDate() {
+            return BenchmarkData.FIRST_ORDER_DATE.plusDays(random.nextInt(BenchmarkData.ORDER_DAYS));
+        }
+    }
+
+    @Benchmark
+    public Order createOrder(Client client) {
+        return createOrder(client.customerId(customerIds), client.orderDate());
+    }
+
+    private Order createOrder(long customerId, LocalDate orderDate) {
+        return orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customerId).build())
+                .orderDate(orderDate)
+                .build());
+    }
+
+    @Benchmark
+    public LoyaltySummary summary(Client client) {
+        return loyaltyService.getLoyaltySummary(client.customerId(customerIds), LocalDate.of(2021, 3, 15),
+                LocalDate.of(2022, 3, 14));
+    }
+}
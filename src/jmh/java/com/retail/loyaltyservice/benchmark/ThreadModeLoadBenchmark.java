@@ -0,0 +1,136 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of the order-create and summary endpoints over HTTP, with requests
+ * handled by the Tomcat worker pool or by virtual threads. Each JMH thread is one
+ * blocking client, set the number of clients with -t. Virtual threads need Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(256)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class ThreadModeLoadBenchmark {
+
+    private static final int CUSTOMERS = 100;
+
+    private static final int ORDERS_PER_CUSTOMER = 200;
+
+    @Param({ "false", "true" })
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    private long[] customerIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:thread-mode-benchmark",
+                        "logging.level.root=WARN", "loyalty.service.virtual_threads.enabled=" + virtualThreads)
+                .run();
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        CustomerRepository customerRepo = context.getBean(CustomerRepository.class);
+        customerIds = new long[CUSTOMERS];
+        Random random = new Random(42);
+        List<Object[]> rows = new ArrayList<>(CUSTOMERS * ORDERS_PER_CUSTOMER);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerIds[i] = customerRepo.save(Customer.builder()
+                    .name("John Doe")
+                    .address("Cochin, Kerala")
+                    .loyaltyPoints(90 * ORDERS_PER_CUSTOMER)
+                    .build()).getId();
+            for (int j = 0; j < ORDERS_PER_CUSTOMER; j++) {
+                LocalDate orderDate = BenchmarkData.FIRST_ORDER_DATE.plusDays(random.nextInt(BenchmarkData.ORDER_DAYS));
+                rows.add(new Object[] { 120, 90, customerIds[i], Date.valueOf(orderDate) });
+            }
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO \"orders\" (\"id\", \"total_amount\", \"loyalty_points\", \"reference_id\", "
+                        + "\"order_date\") VALUES (NEXT VALUE FOR \"orders_seq\", ?, ?, ?, ?)",
+                rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        long customerId(long[] customerIds) {
+            return customerIds[random.nextInt(customerIds.length)];
+        }
+    }
+
+    @Benchmark
+    public int createOrder(Client client) throws IOException, InterruptedException {
+        String order = "{\"totalAmount\":120,\"orderDate\":\"2022-06-15\",\"customer\":{\"id\":"
+                + client.customerId(customerIds) + "}}";
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/orders"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(order))
+                .build());
+    }
+
+    @Benchmark
+    public int summary(Client client) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/loyalty/summary?customerId="
+                + client.customerId(customerIds) + "&startDate=2021-03-15&endDate=2022-03-14"))
+                .GET()
+                .build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Request failed with status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
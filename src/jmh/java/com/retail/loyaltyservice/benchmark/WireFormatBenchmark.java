@@ -0,0 +1,158 @@
+package com.retail.loyaltyservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.model.OrderResponse;
+import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Payload size and Jackson serialization and deserialization time of the order and summary responses in JSON, CBOR
+ * and Smile, with the same settings as the application. Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<OrderResponse>> ORDER_LIST = new TypeReference<>() {
+    };
+
+    @Param({ "JSON", "CBOR", "SMILE" })
+    private WireFormat format;
+
+    private ObjectMapper mapper;
+
+    public enum WireFormat {
+        JSON(JsonFactory::new), CBOR(CBORFactory::new), SMILE(SmileFactory::new);
+
+        private final Supplier<JsonFactory> factory;
+
+        WireFormat(Supplier<JsonFactory> factory) {
+            this.factory = factory;
+        }
+
+        ObjectMapper mapper() {
+            return new ObjectMapper(factory.get())
+                    .registerModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mapper = format.mapper();
+    }
+
+    @State(Scope.Benchmark)
+    public static class SummaryState {
+
+        /**
+         * 12 months is a typical summary, 36 the largest the benchmark data spans.
+         */
+        @Param({ "12", "36" })
+        private int summaryMonths;
+
+        private ObjectWriter writer;
+
+        private ObjectReader reader;
+
+        private LoyaltySummary loyaltySummary;
+
+        private byte[] payload;
+
+        @Setup
+        public void setUp(WireFormatBenchmark benchmark) throws IOException {
+            Customer customer = BenchmarkData.customer();
+            LocalDate startDate = BenchmarkData.FIRST_ORDER_DATE;
+            List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = LoyaltyPointsUtil.getMonthlyLoyaltyPoints(
+                    BenchmarkData.orders(customer, 10_000, AmountDistribution.MIXED, 42), startDate,
+                    startDate.plusMonths(summaryMonths).minusDays(1));
+            loyaltySummary = LoyaltySummary.builder()
+                    .customer(customer)
+                    .monthlyLoyaltyPoints(monthlyLoyaltyPoints)
+                    .totalPoints(customer.getLoyaltyPoints())
+                    .build();
+            writer = benchmark.mapper.writerFor(LoyaltySummary.class);
+            reader = benchmark.mapper.readerFor(LoyaltySummary.class);
+            payload = writer.writeValueAsBytes(loyaltySummary);
+            System.out.printf("%s summary of %d months: %d bytes%n", benchmark.format, summaryMonths,
+                    payload.length);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class OrdersState {
+
+        @Param({ "100", "10000" })
+        private int orderCount;
+
+        private ObjectWriter writer;
+
+        private ObjectReader reader;
+
+        private List<OrderResponse> orders;
+
+        private byte[] payload;
+
+        @Setup
+        public void setUp(WireFormatBenchmark benchmark) throws IOException {
+            orders = BenchmarkData.orders(BenchmarkData.customer(), orderCount, AmountDistribution.MIXED, 42).stream()
+                    .map(OrderResponse::from)
+                    .toList();
+            writer = benchmark.mapper.writerFor(ORDER_LIST);
+            reader = benchmark.mapper.readerFor(ORDER_LIST);
+            payload = writer.writeValueAsBytes(orders);
+            System.out.printf("%s list of %d orders: %d bytes%n", benchmark.format, orderCount, payload.length);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeSummary(SummaryState state) throws IOException {
+        return state.writer.writeValueAsBytes(state.loyaltySummary);
+    }
+
+    @Benchmark
+    public LoyaltySummary deserializeSummary(SummaryState state) throws IOException {
+        return state.reader.readValue(state.payload);
+    }
+
+    @Benchmark
+    public byte[] serializeOrders(OrdersState state) throws IOException {
+        return state.writer.writeValueAsBytes(state.orders);
+    }
+
+    @Benchmark
+    public List<OrderResponse> deserializeOrders(OrdersState state) throws IOException {
+        return state.reader.readValue(state.payload);
+    }
+}
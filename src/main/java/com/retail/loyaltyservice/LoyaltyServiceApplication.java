@@ -2,8 +2,12 @@ package com.retail.loyaltyservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The R2DBC pool of the reactive API is set up by R2dbcConfig, see there why
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@EnableScheduling
 public class LoyaltyServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,33 @@
+package com.retail.loyaltyservice.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache configuration. Evictions are deferred until the surrounding transaction
+ * commits, so a concurrent read cannot put the old balance back in the cache.
+ * Each cache is bounded by its own Caffeine spec.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String LOYALTY_POINTS_CACHE = "loyaltyPoints";
+
+    public static final String ORDER_REPLAYS_CACHE = "orderReplays";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${loyalty.service.cache.loyalty_points.spec}") String spec,
+            @Value("${loyalty.service.cache.order_replays.spec}") String orderReplaysSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(LOYALTY_POINTS_CACHE);
+        cacheManager.setCacheSpecification(spec);
+        cacheManager.registerCustomCache(ORDER_REPLAYS_CACHE, Caffeine.from(orderReplaysSpec).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
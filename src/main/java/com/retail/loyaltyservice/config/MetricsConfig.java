@@ -0,0 +1,81 @@
+package com.retail.loyaltyservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.retail.loyaltyservice.metrics.TimedCborHttpMessageConverter;
+import com.retail.loyaltyservice.metrics.TimedJacksonHttpMessageConverter;
+import com.retail.loyaltyservice.metrics.TimedSmileHttpMessageConverter;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Metrics configuration. Percentiles and histograms of the timers are set in
+ * application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+            MeterRegistry registry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, registry);
+    }
+
+    /**
+     * CBOR and Smile, negotiated through Accept and Content-Type, with the same
+     * Jackson settings as JSON. They replace the default converters of both formats
+     * in place, after JSON, so JSON stays the format of requests accepting any type.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder, MeterRegistry registry) {
+        return new TimedCborHttpMessageConverter(objectMapperBuilder.factory(new CBORFactory()).build(), registry);
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder, MeterRegistry registry) {
+        return new TimedSmileHttpMessageConverter(objectMapperBuilder.factory(new SmileFactory()).build(), registry);
+    }
+
+    /**
+     * Hit ratio of each second-level cache region, next to the hit and miss counts
+     * published as hibernate.second.level.cache.requests.
+     */
+    @Bean
+    public MeterBinder secondLevelCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            for (String region : statistics.getSecondLevelCacheRegionNames()) {
+                Gauge.builder("hibernate.second.level.cache.hit.ratio", statistics,
+                        s -> hitRatio(s.getDomainDataRegionStatistics(region)))
+                        .tag("region", region)
+                        .description("Share of second-level cache lookups answered from the cache")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(CacheRegionStatistics region) {
+        long lookups = region.getHitCount() + region.getMissCount();
+        return lookups == 0 ? 0 : (double) region.getHitCount() / lookups;
+    }
+}
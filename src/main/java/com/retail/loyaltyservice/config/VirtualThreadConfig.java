@@ -0,0 +1,73 @@
+package com.retail.loyaltyservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs request handling, and with it the service layer, on virtual threads instead
+ * of the Tomcat worker pool. As virtual threads are not pooled, connections are
+ * bounded by a semaphore in front of the data source. Requires Java 21.
+ */
+@Configuration
+@ConditionalOnProperty(name = "loyalty.service.virtual_threads.enabled", havingValue = "true")
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Replaces the pooled application task executor, used for asynchronous MVC
+     * requests such as streamed responses.
+     */
+    @Bean(name = { "applicationTaskExecutor", "taskExecutor" })
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(newVirtualThreadPerTaskExecutor());
+    }
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${loyalty.service.virtual_threads.max_connections}") int maxConnections,
+            @Value("${loyalty.service.virtual_threads.connection_acquire_timeout_ms}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    return new ConnectionLimitingDataSource(dataSource, maxConnections, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Looked up reflectively, so that the application still builds and runs on
+     * Java 17 with virtual threads disabled.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException ex) {
+            throw new IllegalStateException("Virtual threads require Java 21, running on Java " + Runtime.version(),
+                    ex);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not create a virtual thread executor", ex);
+        }
+    }
+}
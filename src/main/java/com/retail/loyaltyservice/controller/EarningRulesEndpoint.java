@@ -0,0 +1,44 @@
+package com.retail.loyaltyservice.controller;
+
+import com.retail.loyaltyservice.model.EarningRuleDefinitions;
+import com.retail.loyaltyservice.service.EarningRuleEngine;
+import com.retail.loyaltyservice.util.EarningRules;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to read the earning rules in force, GET /actuator/earningrules, and to replace them without a
+ * restart, POST /actuator/earningrules with any of tiers, categoryMultipliers and promotions.
+ */
+@Component
+@Endpoint(id = "earningrules")
+public class EarningRulesEndpoint {
+
+    private final EarningRuleEngine earningRuleEngine;
+
+    public EarningRulesEndpoint(EarningRuleEngine earningRuleEngine) {
+        this.earningRuleEngine = earningRuleEngine;
+    }
+
+    @ReadOperation
+    public EarningRuleDefinitions rules() {
+        return toDefinitions(earningRuleEngine.getRules());
+    }
+
+    @WriteOperation
+    public EarningRuleDefinitions update(@Nullable String tiers, @Nullable String categoryMultipliers,
+            @Nullable String promotions) {
+        return toDefinitions(earningRuleEngine.update(tiers, categoryMultipliers, promotions));
+    }
+
+    private static EarningRuleDefinitions toDefinitions(EarningRules rules) {
+        return EarningRuleDefinitions.builder()
+                .tiers(rules.getTiers())
+                .categoryMultipliers(rules.getCategoryMultipliers())
+                .promotions(rules.getPromotions())
+                .build();
+    }
+}
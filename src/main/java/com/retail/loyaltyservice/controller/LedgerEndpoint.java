@@ -0,0 +1,26 @@
+package com.retail.loyaltyservice.controller;
+
+import com.retail.loyaltyservice.model.LedgerRebuildSummary;
+import com.retail.loyaltyservice.service.PointsLedgerJob;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to rebuild all balances from the points ledger, POST /actuator/ledger.
+ */
+@Component
+@Endpoint(id = "ledger")
+public class LedgerEndpoint {
+
+    private final PointsLedgerJob pointsLedgerJob;
+
+    public LedgerEndpoint(PointsLedgerJob pointsLedgerJob) {
+        this.pointsLedgerJob = pointsLedgerJob;
+    }
+
+    @WriteOperation
+    public LedgerRebuildSummary rebuild() {
+        return pointsLedgerJob.rebuild();
+    }
+}
@@ -1,21 +1,43 @@
 package com.retail.loyaltyservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.retail.loyaltyservice.model.CustomerLoyaltyReport;
+import com.retail.loyaltyservice.model.LoyaltyReportRequest;
 import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.model.PointsRedemption;
+import com.retail.loyaltyservice.service.CustomerVersions;
+import com.retail.loyaltyservice.service.LoyaltyReportService;
 import com.retail.loyaltyservice.service.LoyaltyService;
+import com.retail.loyaltyservice.service.PointsRedemptionService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
- * Controller class to handle Customer Loyalty programme.
+ * Controller class to handle Customer Loyalty programme. Responses carry an ETag
+ * of the customer version, the summary also Last-Modified, and conditional
+ * requests for an unchanged customer are answered with 304 before anything is
+ * read. The version is read before the data, so a change committed in between
+ * can only make the ETag older than the body, never newer. Multi-customer
+ * reports are streamed as newline-delimited JSON as their chunks complete.
+ * Redemptions answer with the balance left.
  */
 @RestController
 @RequestMapping("/api/v1/loyalty")
@@ -23,20 +45,70 @@ public class LoyaltyController {
 
     private final LoyaltyService loyaltyService;
 
-    public LoyaltyController(LoyaltyService loyaltyService) {
+    private final LoyaltyReportService loyaltyReportService;
+
+    private final PointsRedemptionService pointsRedemptionService;
+
+    private final CustomerVersions customerVersions;
+
+    private final ObjectMapper objectMapper;
+
+    public LoyaltyController(LoyaltyService loyaltyService, LoyaltyReportService loyaltyReportService,
+            PointsRedemptionService pointsRedemptionService, CustomerVersions customerVersions,
+            ObjectMapper objectMapper) {
         this.loyaltyService = loyaltyService;
+        this.loyaltyReportService = loyaltyReportService;
+        this.pointsRedemptionService = pointsRedemptionService;
+        this.customerVersions = customerVersions;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/{customerId}")
-    public ResponseEntity<Integer> getLoyaltyPoints(@PathVariable Long customerId) {
+    public ResponseEntity<Integer> getLoyaltyPoints(@PathVariable Long customerId, WebRequest request) {
+        if (request.checkNotModified(customerVersions.getETag(customerId))) {
+            return null;
+        }
         int loyaltyPoints = loyaltyService.getLoyaltyPoints(customerId);
         return ok(loyaltyPoints);
     }
 
+    @PostMapping("/{customerId}/redemptions")
+    public ResponseEntity<PointsRedemption> redeem(@PathVariable Long customerId,
+            @RequestBody PointsRedemption redemption) {
+        return ok(pointsRedemptionService.redeem(customerId, redemption.getPoints()));
+    }
+
     @GetMapping(path = { "summary" })
     public ResponseEntity<LoyaltySummary> getLoyaltySummary(@RequestParam Long customerId,
-            @RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
+            @RequestParam LocalDate startDate, @RequestParam LocalDate endDate, WebRequest request) {
+        if (request.checkNotModified(customerVersions.getETag(customerId),
+                customerVersions.getLastModified(customerId))) {
+            return null;
+        }
         LoyaltySummary loyaltySummary = loyaltyService.getLoyaltySummary(customerId, startDate, endDate);
         return ok(loyaltySummary);
     }
+
+    @PostMapping(path = "report", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> report(@RequestBody LoyaltyReportRequest reportRequest) {
+        // Checked up front, once streaming has started the status can no longer change to 400
+        loyaltyReportService.checkRequest(reportRequest);
+        ObjectWriter writer = objectMapper.writerFor(CustomerLoyaltyReport.class);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            loyaltyReportService.report(reportRequest, report -> {
+                try {
+                    writer.writeValue(generator, report);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            generator.flush();
+        };
+        return ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
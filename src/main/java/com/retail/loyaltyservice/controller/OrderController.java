@@ -1,49 +1,149 @@
 package com.retail.loyaltyservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderAccrualStatus;
+import com.retail.loyaltyservice.model.OrderBatchSummary;
+import com.retail.loyaltyservice.model.OrderPage;
+import com.retail.loyaltyservice.model.OrderResponse;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderIdempotency;
+import com.retail.loyaltyservice.service.OrderIngestionService;
 import com.retail.loyaltyservice.service.OrderService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
+import static org.springframework.http.ResponseEntity.accepted;
 import static org.springframework.http.ResponseEntity.created;
 import static org.springframework.http.ResponseEntity.ok;
 
 /**
- * Controller class to handle Orders.
+ * Controller class to handle Orders. Orders are returned as OrderResponse, built
+ * from orders fetched with their customer.
  */
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController {
 
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final OrderService orderService;
 
-    public OrderController(OrderService orderService) {
+    private final OrderIngestionService orderIngestionService;
+
+    private final CustomerService customerService;
+
+    private final ObjectMapper objectMapper;
+
+    private final OrderIdempotency orderIdempotency;
+
+    public OrderController(OrderService orderService, OrderIngestionService orderIngestionService,
+            CustomerService customerService, ObjectMapper objectMapper, OrderIdempotency orderIdempotency) {
         this.orderService = orderService;
+        this.orderIngestionService = orderIngestionService;
+        this.customerService = customerService;
+        this.objectMapper = objectMapper;
+        this.orderIdempotency = orderIdempotency;
     }
 
     @PostMapping
-    public ResponseEntity<Order> create(@RequestBody Order order) {
+    public ResponseEntity<OrderResponse> create(@RequestBody Order order,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey != null) {
+            order.setIdempotencyKey(idempotencyKey);
+        }
+        if (orderService.isOrderLogEnabled()) {
+            // Durable in the order log, the order is saved and its points are added once the log is applied
+            return accepted()
+                    .body(OrderResponse.from(orderService.accept(order)));
+        }
+        Optional<OrderResponse> original = orderIdempotency.findReplay(order);
+        if (original.isPresent()) {
+            return created(null)
+                    .body(original.get());
+        }
+        OrderResponse response;
+        try {
+            response = OrderResponse.from(orderService.create(order));
+        } catch (DataIntegrityViolationException ex) {
+            // A request with the same key created its order first, unseen by the filter
+            return created(null)
+                    .body(orderIdempotency.findConflicting(order).orElseThrow(() -> ex));
+        }
+        orderIdempotency.created(response);
+        return created(null)
+                .body(response);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchSummary> createAll(@RequestBody List<Order> orders) {
         return created(null)
-                .body(orderService.create(order));
+                .body(orderIngestionService.createAll(orders));
     }
 
     @GetMapping(path = "{id}")
-    public ResponseEntity<Order> get(@PathVariable(value = "id") Long orderId) {
+    public ResponseEntity<OrderResponse> get(@PathVariable(value = "id") Long orderId) {
         Order order = orderService.get(orderId);
-        return ok(order);
+        return ok(OrderResponse.from(order));
+    }
+
+    @GetMapping(path = "{id}/accrual")
+    public ResponseEntity<OrderAccrualStatus> getAccrualStatus(@PathVariable(value = "id") Long orderId) {
+        return ok(orderService.getAccrualStatus(orderId));
     }
 
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getByCustomerId(@PathVariable(value = "customerId") Long customerId) {
+    public ResponseEntity<List<OrderResponse>> getByCustomerId(@PathVariable(value = "customerId") Long customerId) {
         List<Order> orders = orderService.getByCustomerId(customerId);
-        return ok(orders);
+        return ok(orders.stream().map(OrderResponse::from).toList());
+    }
+
+    @GetMapping("/customer/{customerId}/page")
+    public ResponseEntity<OrderPage> getPageByCustomerId(@PathVariable(value = "customerId") Long customerId,
+            @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "50") int size) {
+        OrderPage page = orderService.getPageByCustomerId(customerId, cursor, size);
+        return ok(page);
+    }
+
+    @GetMapping(path = "/customer/{customerId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamByCustomerId(
+            @PathVariable(value = "customerId") Long customerId) {
+        // Checked up front, once streaming has started the status can no longer change to 404
+        customerService.get(customerId);
+        ObjectWriter writer = objectMapper.writerFor(OrderResponse.class);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            orderService.streamByCustomerId(customerId, order -> {
+                try {
+                    writer.writeValue(generator, OrderResponse.from(order));
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            generator.flush();
+        };
+        return ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
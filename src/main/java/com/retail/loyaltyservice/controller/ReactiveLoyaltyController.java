@@ -0,0 +1,41 @@
+package com.retail.loyaltyservice.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.service.ReactiveLoyaltyService;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Reactive variant of {@link LoyaltyController}. Handlers return as soon as the
+ * query is issued and the response is written when the result arrives, so no
+ * request thread waits on the database.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/loyalty")
+public class ReactiveLoyaltyController {
+
+    private final ReactiveLoyaltyService reactiveLoyaltyService;
+
+    public ReactiveLoyaltyController(ReactiveLoyaltyService reactiveLoyaltyService) {
+        this.reactiveLoyaltyService = reactiveLoyaltyService;
+    }
+
+    @GetMapping("/{customerId}")
+    public Mono<ResponseEntity<Integer>> getLoyaltyPoints(@PathVariable Long customerId) {
+        return reactiveLoyaltyService.getLoyaltyPoints(customerId).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(path = { "summary" })
+    public Mono<ResponseEntity<LoyaltySummary>> getLoyaltySummary(@RequestParam Long customerId,
+            @RequestParam LocalDate startDate, @RequestParam LocalDate endDate) {
+        return reactiveLoyaltyService.getLoyaltySummary(customerId, startDate, endDate).map(ResponseEntity::ok);
+    }
+}
@@ -1,7 +1,10 @@
 package com.retail.loyaltyservice.exception;
 
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
@@ -12,9 +15,13 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 /**
  * Global exception handler to handle all exception scenarios.
@@ -23,12 +30,19 @@ import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
 @Slf4j
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
+    private final LoyaltyMetrics loyaltyMetrics;
+
+    public GlobalExceptionHandler(LoyaltyMetrics loyaltyMetrics) {
+        this.loyaltyMetrics = loyaltyMetrics;
+    }
+
     private ResponseEntity<Object> buildResponseEntity(ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
     protected ResponseEntity<Object> handleResourceNotFound(EntityNotFoundException ex) {
+        loyaltyMetrics.entityNotFound();
         ApiError apiError = new ApiError(NOT_FOUND, "Data does not exist", ex);
         log.error("Exception occurred as requested data was not found : ", ex);
         return buildResponseEntity(apiError);
@@ -58,6 +72,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return buildResponseEntity(apiError);
     }
 
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    protected ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex) {
+        ApiError apiError = new ApiError(CONFLICT, "Data conflicts with existing data", ex);
+        log.error("Exception occurred as data conflicts with existing data : ", ex);
+        return buildResponseEntity(apiError);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    protected ResponseEntity<Object> handleRejectedExecution(RejectedExecutionException ex) {
+        ApiError apiError = new ApiError(SERVICE_UNAVAILABLE, "Service overloaded, retry later", ex);
+        log.warn("Request rejected as the service is overloaded : {}", ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
+    @ExceptionHandler(PessimisticLockingFailureException.class)
+    protected ResponseEntity<Object> handlePessimisticLockingFailure(PessimisticLockingFailureException ex) {
+        ApiError apiError = new ApiError(SERVICE_UNAVAILABLE, "Data busy, retry later", ex);
+        log.warn("Request failed to lock contended data : {}", ex.getMessage());
+        return buildResponseEntity(apiError);
+    }
+
     @ExceptionHandler({ Exception.class })
     protected ResponseEntity<Object> handleAll(
             Exception ex) {
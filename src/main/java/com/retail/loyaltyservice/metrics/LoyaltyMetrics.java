@@ -0,0 +1,141 @@
+package com.retail.loyaltyservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Business meters of the loyalty service. Latency of service methods is timed by
+ * the Timed aspect, repository calls and HTTP requests by Spring Boot.
+ */
+@Component
+public class LoyaltyMetrics {
+
+    private final Counter ordersCreated;
+
+    private final Counter pointsAwarded;
+
+    private final Counter entitiesNotFound;
+
+    private final Counter ordersReplayed;
+
+    private final Counter idempotencyFalsePositives;
+
+    private final Timer pointsCalculation;
+
+    private final Timer accrualLag;
+
+    private final Counter accrualsRejected;
+
+    private final Counter pointsRedeemed;
+
+    private final Counter redemptionRetries;
+
+    private final MeterRegistry registry;
+
+    public LoyaltyMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.ordersCreated = Counter.builder("loyalty.orders.created")
+                .description("Orders created, single and batched")
+                .register(registry);
+        this.pointsAwarded = Counter.builder("loyalty.points.awarded")
+                .description("Loyalty points awarded for created orders")
+                .register(registry);
+        this.entitiesNotFound = Counter.builder("loyalty.not.found")
+                .description("Requests answered with 404 because a customer or order does not exist")
+                .register(registry);
+        this.ordersReplayed = Counter.builder("loyalty.orders.replayed")
+                .description("Retried order requests answered with the order created by the first request")
+                .register(registry);
+        this.idempotencyFalsePositives = Counter.builder("loyalty.idempotency.false.positives")
+                .description("New idempotency keys the Bloom filter could not tell from used ones")
+                .register(registry);
+        this.pointsCalculation = Timer.builder("loyalty.points.calculation")
+                .description("Loyalty points calculation of an order")
+                .register(registry);
+        this.accrualLag = Timer.builder("loyalty.accrual.lag")
+                .description("Time from saving an order to adding its points to the balance, in asynchronous accrual")
+                .register(registry);
+        this.accrualsRejected = Counter.builder("loyalty.accrual.rejected")
+                .description("Orders rejected because the points accrual queue was full")
+                .register(registry);
+        this.pointsRedeemed = Counter.builder("loyalty.points.redeemed")
+                .description("Loyalty points redeemed by customers")
+                .register(registry);
+        this.redemptionRetries = Counter.builder("loyalty.redemption.retries")
+                .description("Redemptions retried after failing to lock the customer row")
+                .register(registry);
+    }
+
+    /**
+     * Registers the depth of the points accrual queue.
+     *
+     * @param queue
+     */
+    public void accrualQueue(Collection<?> queue) {
+        Gauge.builder("loyalty.accrual.queue.depth", queue, Collection::size)
+                .description("Points accruals waiting in the queue")
+                .register(registry);
+    }
+
+    public void accrualApplied(Duration lag) {
+        accrualLag.record(lag);
+    }
+
+    public void accrualRejected() {
+        accrualsRejected.increment();
+    }
+
+    /**
+     * Records created orders and the points they earned.
+     *
+     * @param orders
+     * @param points
+     */
+    public void orderCreated(int orders, long points) {
+        ordersCreated.increment(orders);
+        pointsAwarded.increment(points);
+    }
+
+    public void entityNotFound() {
+        entitiesNotFound.increment();
+    }
+
+    public void orderReplayed() {
+        ordersReplayed.increment();
+    }
+
+    public void idempotencyFalsePositive() {
+        idempotencyFalsePositives.increment();
+    }
+
+    public void pointsRedeemed(int points) {
+        pointsRedeemed.increment(points);
+    }
+
+    public void redemptionRetried() {
+        redemptionRetries.increment();
+    }
+
+    /**
+     * Times the points calculation of an order.
+     *
+     * @param calculation
+     * @return loyalty points
+     */
+    public int calculatePoints(IntSupplier calculation) {
+        long start = System.nanoTime();
+        try {
+            return calculation.getAsInt();
+        } finally {
+            pointsCalculation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.retail.loyaltyservice.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Cbor variant of TimedJacksonHttpMessageConverter. Replaces the default Cbor
+ * converter in place, so JSON stays the format of requests accepting any type.
+ */
+public class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    private final MeterRegistry registry;
+
+    public TimedCborHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            sample.stop(TimedJacksonHttpMessageConverter.serializationTimer(registry, object, "cbor"));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.retail.loyaltyservice.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Jackson converter timing the serialization of response bodies, tagged with the
+ * body type and wire format, so that serialization shows up next to the database
+ * and compute phases.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final MeterRegistry registry;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, MeterRegistry registry) {
+        super(objectMapper);
+        this.registry = registry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            sample.stop(serializationTimer(registry, object, "json"));
+        }
+    }
+
+    static Timer serializationTimer(MeterRegistry registry, Object object, String format) {
+        return Timer.builder("loyalty.serialization")
+                .description("Serialization of response bodies")
+                .tag("type", object.getClass().getSimpleName())
+                .tag("format", format)
+                .register(registry);
+    }
+}
@@ -0,0 +1,25 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Type for the loyalty points of one customer in a multi-customer report, with the points earned in each month of
+ * the report range and their total.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerLoyaltyReport {
+
+    private Long customerId;
+    private List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints;
+    private long totalPoints;
+}
@@ -0,0 +1,60 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.YearMonth;
+
+/**
+ * Entity class for loyalty points earned by a customer in a calendar month. Rows are maintained incrementally as
+ * orders are created, so a summary never has to scan the orders of a customer.
+ */
+@Entity
+@Table(name = "customer_monthly_points", uniqueConstraints = @UniqueConstraint(columnNames = { "customerId",
+        "period" }))
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class CustomerMonthlyPoints implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long customerId;
+
+    /**
+     * Year and month encoded as yyyyMM, see {@link #periodOf(YearMonth)}.
+     */
+    private int period;
+
+    private long points;
+
+    /**
+     * Encodes a month as yyyyMM so that periods sort and compare chronologically.
+     *
+     * @param yearMonth
+     * @return period
+     */
+    public static int periodOf(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+
+    public YearMonth toYearMonth() {
+        return YearMonth.of(period / 100, period % 100);
+    }
+}
@@ -0,0 +1,12 @@
+package com.retail.loyaltyservice.model;
+
+/**
+ * Loyalty points of a customer in one month, encoded as yyyyMM, read for many customers at once. A record built by
+ * the query rather than an interface projection, as reports read many thousands of rows per query.
+ *
+ * @param customerId
+ * @param period
+ * @param points
+ */
+public record CustomerPeriodPoints(long customerId, int period, long points) {
+}
@@ -0,0 +1,22 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Type for the earning rules in force, in the format of loyalty.service.earning.*.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EarningRuleDefinitions {
+
+    private String tiers;
+    private String categoryMultipliers;
+    private String promotions;
+}
@@ -0,0 +1,50 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Entity class for the progress of one worker of a points expiry sweep through its range of customer ids. Written in
+ * the transaction of each batch, so an interrupted sweep resumes after the last committed batch.
+ */
+@Entity
+@Table(name = "expiry_checkpoints")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class ExpiryCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Integer worker;
+
+    /**
+     * Month encoded as yyyyMM from which points are still valid, points of earlier months expire in this sweep.
+     */
+    private int cutoffPeriod;
+
+    /**
+     * Customer ids after rangeStart up to and including rangeEnd belong to the worker.
+     */
+    private long rangeStart;
+
+    private long rangeEnd;
+
+    /**
+     * Last customer id of the last committed batch, rangeStart before the first.
+     */
+    private long lastCustomerId;
+
+    private boolean completed;
+}
@@ -0,0 +1,22 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Type for the outcome of a points expiry sweep, or of the part of it run by one call when it resumes.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExpirySweepSummary {
+
+    private int cutoffPeriod;
+    private long customersExpired;
+    private long pointsExpired;
+}
@@ -0,0 +1,21 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Type for the outcome of rebuilding balances from the points ledger.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerRebuildSummary {
+
+    private long customersRebuilt;
+    private long lastTransactionId;
+}
@@ -0,0 +1,11 @@
+package com.retail.loyaltyservice.model;
+
+/**
+ * Projection of the points ledger of a customer summed by the database.
+ */
+public interface LedgerTotal {
+
+    Long getCustomerId();
+
+    long getPoints();
+}
@@ -0,0 +1,26 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Type for a multi-customer loyalty report request, either for the given customers or for all customers.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoyaltyReportRequest {
+
+    private List<Long> customerIds;
+    private boolean allCustomers;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
@@ -0,0 +1,13 @@
+package com.retail.loyaltyservice.model;
+
+/**
+ * Projection of loyalty points of a customer summed per calendar month by the database.
+ */
+public interface MonthlyPointsAggregate {
+
+    int getYear();
+
+    int getMonth();
+
+    long getPoints();
+}
@@ -4,13 +4,16 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
@@ -24,7 +27,7 @@ import lombok.Setter;
  * Entity class for Order data.
  */
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_reference_id_order_date", columnList = "reference_id, orderDate"))
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
@@ -34,8 +37,19 @@ public class Order implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Longest category, in characters and in UTF-8 bytes.
+     */
+    public static final int MAX_CATEGORY_LENGTH = 32;
+
+    /**
+     * Longest idempotency key, in characters.
+     */
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private long id;
 
     private BigDecimal totalAmount;
@@ -48,4 +62,17 @@ public class Order implements Serializable {
 
     @Temporal(TemporalType.DATE)
     private LocalDate orderDate;
+
+    /**
+     * Product category the earning rules may multiply the points of, null for none.
+     */
+    @Column(length = MAX_CATEGORY_LENGTH)
+    private String category;
+
+    /**
+     * Key chosen by the client, such as its own order reference, so that a retried request is answered with the
+     * order it created instead of creating another. Null for none.
+     */
+    @Column(length = MAX_IDEMPOTENCY_KEY_LENGTH, unique = true)
+    private String idempotencyKey;
 }
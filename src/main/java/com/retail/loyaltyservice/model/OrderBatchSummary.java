@@ -0,0 +1,22 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Type for the outcome of a batch of ingested orders.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderBatchSummary {
+
+    private int ordersCreated;
+    private int customersUpdated;
+    private long pointsAwarded;
+}
@@ -0,0 +1,36 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Entity class for the position up to which an order log has been applied to the database. Written in the
+ * transaction that saves the orders, so each record of the log is applied exactly once.
+ */
+@Entity
+@Table(name = "order_log_offsets")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class OrderLogOffset implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String name;
+
+    /**
+     * Offset of the first record not yet applied.
+     */
+    private long committedOffset;
+}
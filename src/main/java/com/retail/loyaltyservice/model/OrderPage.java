@@ -0,0 +1,23 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Type for a page of orders, ordered by order date and id. The cursor is null on the last page.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPage {
+
+    private List<OrderResponse> orders;
+    private String nextCursor;
+}
@@ -0,0 +1,55 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Type for an order returned by the order APIs, with the same fields as the Order entity. Built from an order whose
+ * customer is already loaded, so serializing it never runs a query.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderResponse {
+
+    private long id;
+    private BigDecimal totalAmount;
+    private int loyaltyPoints;
+    private Customer customer;
+    private LocalDate orderDate;
+    private String category;
+    private String idempotencyKey;
+
+    /**
+     * Copies the order, and its customer into a plain Customer so that no Hibernate proxy reaches the response.
+     *
+     * @param order
+     * @return OrderResponse
+     */
+    public static OrderResponse from(Order order) {
+        Customer customer = order.getCustomer();
+        return OrderResponse.builder()
+                .id(order.getId())
+                .totalAmount(order.getTotalAmount())
+                .loyaltyPoints(order.getLoyaltyPoints())
+                .customer(customer == null ? null : Customer.builder()
+                        .id(customer.getId())
+                        .name(customer.getName())
+                        .email(customer.getEmail())
+                        .address(customer.getAddress())
+                        .loyaltyPoints(customer.getLoyaltyPoints())
+                        .build())
+                .orderDate(order.getOrderDate())
+                .category(order.getCategory())
+                .idempotencyKey(order.getIdempotencyKey())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Entity class for the points of an order not yet added to the balance, in asynchronous accrual mode. Saved with the
+ * order and deleted in the transaction that applies the points, so an order's points are applied exactly once, also
+ * when accruals are replayed after a restart.
+ */
+@Entity
+@Table(name = "pending_accruals")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PendingAccrual implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private long orderId;
+
+    private Long customerId;
+
+    private int points;
+
+    /**
+     * Month of the order encoded as yyyyMM, null when the order has no order date.
+     */
+    private Integer period;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,34 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Entity class for the points of a customer settled so far, oldest first. Expiry settles all points earned in expired
+ * months, taking off the balance what is left of them, so a customer's points are never expired twice whichever sweep
+ * reaches them, and points earned later are never expired in place of older ones.
+ */
+@Entity
+@Table(name = "points_expiries")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PointsExpiry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long customerId;
+
+    private long settledPoints;
+}
@@ -0,0 +1,22 @@
+package com.retail.loyaltyservice.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Type for a redemption of loyalty points. Requests carry the points to redeem, responses also the balance left.
+ */
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PointsRedemption {
+
+    private Long customerId;
+    private int points;
+    private int loyaltyPoints;
+}
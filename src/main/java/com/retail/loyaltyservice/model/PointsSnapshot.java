@@ -0,0 +1,38 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Entity class for the balance of a customer folded from the points ledger up to a transaction id. The balance is
+ * this snapshot plus the ledger entries of the customer after it.
+ */
+@Entity
+@Table(name = "points_snapshots")
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PointsSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private Long customerId;
+
+    private long balance;
+
+    private long lastTransactionId;
+
+    private Instant takenAt;
+}
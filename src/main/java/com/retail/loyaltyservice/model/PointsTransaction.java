@@ -0,0 +1,61 @@
+package com.retail.loyaltyservice.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Entity class for an entry of the append-only points ledger. The ledger is the source of truth for balances,
+ * Customer.loyaltyPoints is its running total per customer and can be rebuilt from it.
+ */
+@Entity
+@Table(name = "points_transactions", indexes = @Index(name = "idx_points_transactions_customer_id_id", columnList = "customerId, id"))
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Builder
+public class PointsTransaction implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_transactions_seq")
+    @SequenceGenerator(name = "points_transactions_seq", sequenceName = "points_transactions_seq", allocationSize = 50)
+    private long id;
+
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    /**
+     * Signed change of the balance.
+     */
+    private int points;
+
+    /**
+     * Order the points were earned with, null for other types.
+     */
+    private Long orderId;
+
+    private Instant createdAt;
+
+    public enum Type {
+        EARN, ADJUST, EXPIRE, REDEEM
+    }
+}
@@ -0,0 +1,44 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.CustomerPeriodPoints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@Repository
+public interface CustomerMonthlyPointsRepository extends JpaRepository<CustomerMonthlyPoints, Long> {
+
+    List<CustomerMonthlyPoints> findByCustomerIdAndPeriodBetweenOrderByPeriod(Long customerId, int fromPeriod,
+            int toPeriod);
+
+    @Query("SELECT new com.retail.loyaltyservice.model.CustomerPeriodPoints(m.customerId, m.period, m.points) "
+            + "FROM CustomerMonthlyPoints m "
+            + "WHERE m.customerId BETWEEN :fromId AND :toId AND m.period BETWEEN :fromPeriod AND :toPeriod")
+    List<CustomerPeriodPoints> findPeriodPointsByCustomerIdBetween(@Param("fromId") long fromId,
+            @Param("toId") long toId, @Param("fromPeriod") int fromPeriod, @Param("toPeriod") int toPeriod);
+
+    @Modifying
+    @Query("UPDATE CustomerMonthlyPoints m SET m.points = m.points + :points WHERE m.customerId = :customerId AND m.period = :period")
+    int incrementPoints(@Param("customerId") Long customerId, @Param("period") int period,
+            @Param("points") long points);
+
+    /**
+     * Adds points to the rollup row of the given month, creating the row for the first order of the month.
+     *
+     * @param customerId
+     * @param yearMonth
+     * @param points
+     */
+    default void addPoints(Long customerId, YearMonth yearMonth, long points) {
+        int period = CustomerMonthlyPoints.periodOf(yearMonth);
+        if (incrementPoints(customerId, period, points) == 0) {
+            save(CustomerMonthlyPoints.builder().customerId(customerId).period(period).points(points).build());
+        }
+    }
+}
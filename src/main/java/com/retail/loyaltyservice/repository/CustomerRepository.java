@@ -1,17 +1,97 @@
 package com.retail.loyaltyservice.repository;
 
 import com.retail.loyaltyservice.model.Customer;
+import jakarta.persistence.LockModeType;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static com.retail.loyaltyservice.config.CacheConfig.LOYALTY_POINTS_CACHE;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    /**
+     * Updates the details of a customer and locks its row until commit. The balance only changes through the points
+     * ledger.
+     */
     @Modifying
-    @Query("UPDATE Customer c SET c.name = :name, c.email = :email, c.address = :address, c.loyaltyPoints = :loyaltyPoints WHERE c.id = :id")
-    void update(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
-            @Param("address") String address, @Param("loyaltyPoints") int loyaltyPoints);
+    @Query("UPDATE Customer c SET c.name = :name, c.email = :email, c.address = :address WHERE c.id = :id")
+    int update(@Param("id") Long id, @Param("name") String name, @Param("email") String email,
+            @Param("address") String address);
+
+    /**
+     * Reads only the balance, through the balance cache. Unlike findById it never answers from the persistence context.
+     * Every method changing a balance evicts the customer from the cache once its transaction commits.
+     */
+    @Cacheable(cacheNames = LOYALTY_POINTS_CACHE, key = "#p0", unless = "#result == null")
+    @Query("SELECT c.loyaltyPoints FROM Customer c WHERE c.id = :id")
+    Optional<Integer> findLoyaltyPointsById(@Param("id") Long id);
+
+    /**
+     * Reads the balance from the database, bypassing the balance cache.
+     */
+    @Query("SELECT c.loyaltyPoints FROM Customer c WHERE c.id = :id")
+    Optional<Integer> findCurrentLoyaltyPointsById(@Param("id") Long id);
+
+    /**
+     * Locks the rows of the given customers until commit, in id order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Customer c WHERE c.id IN :ids ORDER BY c.id")
+    List<Customer> lockAllById(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Adds points to the balance in the database, so concurrent orders of a customer never lose an update. Pending
+     * changes are flushed first and the persistence context is cleared afterwards, as loaded customers are stale.
+     */
+    @CacheEvict(cacheNames = LOYALTY_POINTS_CACHE, key = "#p0")
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.loyaltyPoints = c.loyaltyPoints + :points WHERE c.id = :id")
+    int addLoyaltyPoints(@Param("id") Long id, @Param("points") int points);
+
+    /**
+     * Takes points off the balance in the database only if the balance covers them, in one statement, so concurrent
+     * redemptions and orders of a customer can never take the balance below zero.
+     *
+     * @return 1 when the points were taken off, 0 when the customer does not exist or its balance is too low
+     */
+    @CacheEvict(cacheNames = LOYALTY_POINTS_CACHE, key = "#p0")
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.loyaltyPoints = c.loyaltyPoints - :points "
+            + "WHERE c.id = :id AND c.loyaltyPoints >= :points")
+    int redeemLoyaltyPoints(@Param("id") Long id, @Param("points") int points);
+
+    /**
+     * Overwrites the balance, only for rebuilding it from the points ledger.
+     */
+    @CacheEvict(cacheNames = LOYALTY_POINTS_CACHE, key = "#p0")
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Customer c SET c.loyaltyPoints = :points WHERE c.id = :id")
+    int setLoyaltyPoints(@Param("id") Long id, @Param("points") int points);
+
+    /**
+     * Ids of customers after the given id, in id order, for walking all customers page by page.
+     */
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId ORDER BY c.id")
+    List<Long> findIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Ids of customers after the given id up to and including toId, in id order, for walking a range page by page.
+     */
+    @Query("SELECT c.id FROM Customer c WHERE c.id > :afterId AND c.id <= :toId ORDER BY c.id")
+    List<Long> findIdsInRange(@Param("afterId") long afterId, @Param("toId") long toId, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM Customer c")
+    long findMaxId();
 }
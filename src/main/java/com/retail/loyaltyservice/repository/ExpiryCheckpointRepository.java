@@ -0,0 +1,13 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.ExpiryCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExpiryCheckpointRepository extends JpaRepository<ExpiryCheckpoint, Integer> {
+
+    List<ExpiryCheckpoint> findAllByOrderByWorker();
+}
@@ -0,0 +1,19 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.OrderLogOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderLogOffsetRepository extends JpaRepository<OrderLogOffset, String> {
+
+    /**
+     * Offset of the first record of a log not yet applied, 0 before the first batch is applied.
+     *
+     * @param name
+     * @return committed offset
+     */
+    default long findCommittedOffset(String name) {
+        return findById(name).map(OrderLogOffset::getCommittedOffset).orElse(0L);
+    }
+}
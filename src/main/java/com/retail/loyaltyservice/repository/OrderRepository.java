@@ -1,15 +1,89 @@
 package com.retail.loyaltyservice.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerPeriodPoints;
+import com.retail.loyaltyservice.model.MonthlyPointsAggregate;
 import com.retail.loyaltyservice.model.Order;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findByCustomer(Customer customer);
+
+    /**
+     * Finds an order together with its customer in one query.
+     */
+    @EntityGraph(attributePaths = "customer")
+    Optional<Order> findWithCustomerById(Long id);
+
+    /**
+     * Finds the order created with an idempotency key together with its customer in one query.
+     */
+    @EntityGraph(attributePaths = "customer")
+    Optional<Order> findWithCustomerByIdempotencyKey(String idempotencyKey);
+
+    /**
+     * Keyset pagination by (orderDate, id), with orders without a date first. A page
+     * after an undated order continues with the remaining undated orders, then every
+     * dated one. Customers are fetched with the orders.
+     */
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.orderDate ASC NULLS FIRST, o.id")
+    List<Order> findFirstPageByCustomerId(@Param("customerId") Long customerId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId "
+            + "AND (o.orderDate > :orderDate OR (o.orderDate = :orderDate AND o.id > :id)) "
+            + "ORDER BY o.orderDate ASC NULLS FIRST, o.id")
+    List<Order> findPageByCustomerIdAfter(@Param("customerId") Long customerId,
+            @Param("orderDate") LocalDate orderDate, @Param("id") long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "customer")
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId "
+            + "AND (o.orderDate IS NOT NULL OR o.id > :id) "
+            + "ORDER BY o.orderDate ASC NULLS FIRST, o.id")
+    List<Order> findPageByCustomerIdAfterUndated(@Param("customerId") Long customerId, @Param("id") long id,
+            Pageable pageable);
+
+    /**
+     * Streams the orders of a customer from a database cursor. Must be consumed
+     * inside a transaction, orders are read-only and come with their customer.
+     */
+    @EntityGraph(attributePaths = "customer")
+    @QueryHints({ @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true") })
+    @Query("SELECT o FROM Order o WHERE o.customer.id = :customerId ORDER BY o.orderDate ASC NULLS FIRST, o.id")
+    Stream<Order> streamByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT YEAR(o.orderDate) AS year, MONTH(o.orderDate) AS month, SUM(o.loyaltyPoints) AS points "
+            + "FROM Order o WHERE o.customer.id = :customerId AND o.orderDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY YEAR(o.orderDate), MONTH(o.orderDate) ORDER BY YEAR(o.orderDate), MONTH(o.orderDate)")
+    List<MonthlyPointsAggregate> aggregateMonthlyLoyaltyPoints(@Param("customerId") Long customerId,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Sums loyalty points of a range of customers per customer and calendar month in one query, months encoded as
+     * yyyyMM.
+     */
+    @Query("SELECT new com.retail.loyaltyservice.model.CustomerPeriodPoints(o.customer.id, "
+            + "YEAR(o.orderDate) * 100 + MONTH(o.orderDate), SUM(o.loyaltyPoints)) FROM Order o "
+            + "WHERE o.customer.id BETWEEN :fromId AND :toId AND o.orderDate BETWEEN :startDate AND :endDate "
+            + "GROUP BY o.customer.id, YEAR(o.orderDate), MONTH(o.orderDate)")
+    List<CustomerPeriodPoints> aggregatePeriodPointsByCustomerIdBetween(@Param("fromId") long fromId,
+            @Param("toId") long toId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,28 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.PendingAccrual;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PendingAccrualRepository extends JpaRepository<PendingAccrual, Long> {
+
+    /**
+     * Deletes the pending accrual of an order. Only the transaction that deletes it may apply its points.
+     *
+     * @param orderId
+     * @return 1 if it was still pending, 0 if it was already applied
+     */
+    @Modifying
+    @Query("DELETE FROM PendingAccrual p WHERE p.orderId = :orderId")
+    int deletePending(@Param("orderId") long orderId);
+
+    @Query("SELECT p FROM PendingAccrual p WHERE p.orderId > :afterOrderId ORDER BY p.orderId")
+    List<PendingAccrual> findPendingAfter(@Param("afterOrderId") long afterOrderId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.PointsExpiry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PointsExpiryRepository extends JpaRepository<PointsExpiry, Long> {
+}
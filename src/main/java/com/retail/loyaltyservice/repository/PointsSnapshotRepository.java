@@ -0,0 +1,57 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.PointsSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface PointsSnapshotRepository extends JpaRepository<PointsSnapshot, Long> {
+
+    @Query("SELECT COALESCE(MAX(s.lastTransactionId), 0) FROM PointsSnapshot s")
+    long findLastTransactionId();
+
+    @Modifying
+    @Query("UPDATE PointsSnapshot s SET s.balance = s.balance + :points, s.lastTransactionId = :lastTransactionId, "
+            + "s.takenAt = :takenAt WHERE s.customerId = :customerId")
+    int incrementBalance(@Param("customerId") Long customerId, @Param("points") long points,
+            @Param("lastTransactionId") long lastTransactionId, @Param("takenAt") Instant takenAt);
+
+    @Modifying
+    @Query("UPDATE PointsSnapshot s SET s.balance = :balance, s.lastTransactionId = :lastTransactionId, "
+            + "s.takenAt = :takenAt WHERE s.customerId = :customerId")
+    int updateBalance(@Param("customerId") Long customerId, @Param("balance") long balance,
+            @Param("lastTransactionId") long lastTransactionId, @Param("takenAt") Instant takenAt);
+
+    /**
+     * Folds ledger points into the snapshot of a customer, creating it for the first snapshot of the customer.
+     *
+     * @param customerId
+     * @param points            sum of the ledger entries after the current snapshot, up to lastTransactionId
+     * @param lastTransactionId
+     * @param takenAt
+     */
+    default void addPoints(Long customerId, long points, long lastTransactionId, Instant takenAt) {
+        if (incrementBalance(customerId, points, lastTransactionId, takenAt) == 0) {
+            save(new PointsSnapshot(customerId, points, lastTransactionId, takenAt));
+        }
+    }
+
+    /**
+     * Replaces the snapshot of a customer.
+     *
+     * @param customerId
+     * @param balance           sum of the ledger entries up to lastTransactionId
+     * @param lastTransactionId
+     * @param takenAt
+     */
+    default void putBalance(Long customerId, long balance, long lastTransactionId, Instant takenAt) {
+        if (updateBalance(customerId, balance, lastTransactionId, takenAt) == 0) {
+            save(new PointsSnapshot(customerId, balance, lastTransactionId, takenAt));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.LedgerTotal;
+import com.retail.loyaltyservice.model.PointsTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Points ledger. Entries are only ever inserted.
+ */
+@Repository
+public interface PointsTransactionRepository extends JpaRepository<PointsTransaction, Long> {
+
+    @Query("SELECT COALESCE(SUM(t.points), 0) FROM PointsTransaction t WHERE t.customerId = :customerId AND t.id > :afterId")
+    long sumPointsAfter(@Param("customerId") Long customerId, @Param("afterId") long afterId);
+
+    @Query("SELECT t.customerId AS customerId, SUM(t.points) AS points FROM PointsTransaction t "
+            + "WHERE t.customerId IN :customerIds AND t.id > :afterId GROUP BY t.customerId")
+    List<LedgerTotal> sumPointsAfter(@Param("customerIds") Collection<Long> customerIds,
+            @Param("afterId") long afterId);
+
+    /**
+     * Highest id after afterId among the entries created before the given instant, or afterId when there is none.
+     */
+    @Query("SELECT COALESCE(MAX(t.id), :afterId) FROM PointsTransaction t WHERE t.id > :afterId AND t.createdAt < :before")
+    long findLastIdCreatedBefore(@Param("afterId") long afterId, @Param("before") Instant before);
+
+    /**
+     * Streams the points per customer of the entries with ids in (afterId, upToId], ordered by customer, from a
+     * database cursor. Must be consumed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT t.customerId AS customerId, SUM(t.points) AS points FROM PointsTransaction t "
+            + "WHERE t.id > :afterId AND t.id <= :upToId GROUP BY t.customerId ORDER BY t.customerId")
+    Stream<LedgerTotal> streamTotals(@Param("afterId") long afterId, @Param("upToId") long upToId);
+}
@@ -0,0 +1,95 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.MonthlyPointsAggregate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Non-blocking reads of the loyalty tables over R2DBC, for the reactive loyalty
+ * API. Reads the same tables as the JPA repositories, so column names follow the
+ * quoted physical names generated by Hibernate.
+ */
+@Repository
+public class ReactiveLoyaltyRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveLoyaltyRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Integer> findLoyaltyPointsById(Long id) {
+        return databaseClient.sql("SELECT \"loyalty_points\" FROM \"customers\" WHERE \"id\" = :id")
+                .bind("id", id)
+                .map(row -> row.get("loyalty_points", Integer.class))
+                .one();
+    }
+
+    public Mono<Customer> findCustomerById(Long id) {
+        return databaseClient.sql("SELECT \"id\", \"name\", \"email\", \"address\", \"loyalty_points\" "
+                + "FROM \"customers\" WHERE \"id\" = :id")
+                .bind("id", id)
+                .map(row -> Customer.builder()
+                        .id(row.get("id", Long.class))
+                        .name(row.get("name", String.class))
+                        .email(row.get("email", String.class))
+                        .address(row.get("address", String.class))
+                        .loyaltyPoints(row.get("loyalty_points", Integer.class))
+                        .build())
+                .one();
+    }
+
+    public Flux<CustomerMonthlyPoints> findMonthlyPoints(Long customerId, int fromPeriod, int toPeriod) {
+        return databaseClient.sql("SELECT \"id\", \"customer_id\", \"period\", \"points\" "
+                + "FROM \"customer_monthly_points\" WHERE \"customer_id\" = :customerId "
+                + "AND \"period\" BETWEEN :fromPeriod AND :toPeriod ORDER BY \"period\"")
+                .bind("customerId", customerId)
+                .bind("fromPeriod", fromPeriod)
+                .bind("toPeriod", toPeriod)
+                .map(row -> CustomerMonthlyPoints.builder()
+                        .id(row.get("id", Long.class))
+                        .customerId(row.get("customer_id", Long.class))
+                        .period(row.get("period", Integer.class))
+                        .points(row.get("points", Long.class))
+                        .build())
+                .all();
+    }
+
+    public Flux<MonthlyPointsAggregate> aggregateMonthlyLoyaltyPoints(Long customerId, LocalDate startDate,
+            LocalDate endDate) {
+        return databaseClient.sql("SELECT YEAR(\"order_date\") AS \"year\", MONTH(\"order_date\") AS \"month\", "
+                + "SUM(\"loyalty_points\") AS \"points\" FROM \"orders\" WHERE \"reference_id\" = :customerId "
+                + "AND \"order_date\" BETWEEN :startDate AND :endDate "
+                + "GROUP BY YEAR(\"order_date\"), MONTH(\"order_date\") ORDER BY \"year\", \"month\"")
+                .bind("customerId", customerId)
+                .bind("startDate", startDate)
+                .bind("endDate", endDate)
+                .map(row -> (MonthlyPointsAggregate) new MonthlyPoints(row.get("year", Integer.class),
+                        row.get("month", Integer.class), row.get("points", Long.class)))
+                .all();
+    }
+
+    private record MonthlyPoints(int year, int month, long points) implements MonthlyPointsAggregate {
+
+        @Override
+        public int getYear() {
+            return year;
+        }
+
+        @Override
+        public int getMonth() {
+            return month;
+        }
+
+        @Override
+        public long getPoints() {
+            return points;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.retail.loyaltyservice.service;
 
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
@@ -12,13 +13,21 @@ import java.util.Optional;
  * Customer API service implementation.
  */
 @Service
+@Timed("loyalty.service")
 @Transactional
 public class CustomerService {
 
     private final CustomerRepository customerRepo;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    private final PointsLedgerService pointsLedger;
+
+    private final CustomerVersions customerVersions;
+
+    public CustomerService(CustomerRepository customerRepository, PointsLedgerService pointsLedger,
+            CustomerVersions customerVersions) {
         this.customerRepo = customerRepository;
+        this.pointsLedger = pointsLedger;
+        this.customerVersions = customerVersions;
     }
 
     /**
@@ -28,7 +37,9 @@ public class CustomerService {
      * @return Customer
      */
     public Customer create(Customer customer) {
-        return customerRepo.save(customer);
+        Customer createdCustomer = customerRepo.save(customer);
+        pointsLedger.openBalance(createdCustomer);
+        return createdCustomer;
     }
 
     /**
@@ -46,13 +57,21 @@ public class CustomerService {
     }
 
     /**
-     * Update customer.
+     * Update customer. A different balance is recorded as an adjustment in the
+     * points ledger.
      *
      * @param customer
      */
     public Optional<Customer> update(Customer customer) {
-        customerRepo.update(customer.getId(), customer.getName(), customer.getEmail(), customer.getAddress(),
-                customer.getLoyaltyPoints());
+        if (customerRepo.update(customer.getId(), customer.getName(), customer.getEmail(),
+                customer.getAddress()) > 0) {
+            // The row is locked by the update, so the balance cannot change before it is adjusted
+            int loyaltyPoints = customerRepo.findCurrentLoyaltyPointsById(customer.getId()).orElseThrow();
+            if (customer.getLoyaltyPoints() != loyaltyPoints) {
+                pointsLedger.adjust(customer.getId(), customer.getLoyaltyPoints() - loyaltyPoints);
+            }
+            customerVersions.bump(customer.getId());
+        }
         return customerRepo.findById(customer.getId());
     }
 }
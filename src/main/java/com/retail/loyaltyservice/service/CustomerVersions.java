@@ -0,0 +1,82 @@
+package com.retail.loyaltyservice.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-customer version counters behind the ETag and Last-Modified headers of the loyalty endpoints. Every change of
+ * the balance, monthly points or details of a customer bumps the version once its transaction commits, so a reader
+ * that reads the version before the data never tags stale data with a current version. Versions are kept in memory;
+ * ETags carry the start time of the process, so they never match after a restart, and customers not changed since
+ * then count as last modified at the start.
+ */
+@Component
+public class CustomerVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Version initial = new Version(0, System.currentTimeMillis());
+
+    private final ConcurrentHashMap<Long, Version> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Bumps the version of a customer. Inside a transaction this only happens once it commits.
+     *
+     * @param customerId
+     */
+    public void bump(Long customerId) {
+        bumpAll(List.of(customerId));
+    }
+
+    /**
+     * Bumps the versions of customers. Inside a transaction this only happens once it commits.
+     *
+     * @param customerIds
+     */
+    public void bumpAll(Collection<Long> customerIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    customerIds.forEach(CustomerVersions.this::increment);
+                }
+            });
+        } else {
+            customerIds.forEach(this::increment);
+        }
+    }
+
+    private void increment(Long customerId) {
+        long now = System.currentTimeMillis();
+        versions.merge(customerId, new Version(1, now),
+                (current, next) -> new Version(current.version() + 1, Math.max(current.modifiedAt(), now)));
+    }
+
+    /**
+     * Weak ETag of the current version of a customer, the same for every wire format.
+     *
+     * @param customerId
+     * @return ETag
+     */
+    public String getETag(Long customerId) {
+        return "W/\"" + epoch + "-" + customerId + "-" + versions.getOrDefault(customerId, initial).version() + "\"";
+    }
+
+    /**
+     * Time of the last change of a customer, or the start of the process when it has not changed since.
+     *
+     * @param customerId
+     * @return epoch milliseconds
+     */
+    public long getLastModified(Long customerId) {
+        return versions.getOrDefault(customerId, initial).modifiedAt();
+    }
+
+    private record Version(long version, long modifiedAt) {
+    }
+}
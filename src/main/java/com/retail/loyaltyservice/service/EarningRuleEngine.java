@@ -0,0 +1,80 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.util.EarningRules;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the compiled earning rules, loaded from loyalty.service.earning.* and replaced as a whole by
+ * POST /actuator/earningrules without a restart. A calculation reads the rules once, so every order is calculated
+ * with either the old or the new rules, never a mix of both.
+ */
+@Component
+@Slf4j
+public class EarningRuleEngine {
+
+    private final AtomicReference<EarningRules> rules;
+
+    public EarningRuleEngine(@Value("${loyalty.service.earning.tiers}") String tiers,
+            @Value("${loyalty.service.earning.category_multipliers}") String categoryMultipliers,
+            @Value("${loyalty.service.earning.promotions}") String promotions) {
+        this.rules = new AtomicReference<>(EarningRules.compile(tiers, categoryMultipliers, promotions));
+    }
+
+    /**
+     * @return rules in force, to calculate a batch of orders with the same rules
+     */
+    public EarningRules getRules() {
+        return rules.get();
+    }
+
+    /**
+     * Calculates the loyalty points of an order with the rules in force.
+     *
+     * @param order
+     * @return loyalty points
+     */
+    public int calculatePoints(Order order) {
+        return calculatePoints(rules.get(), order);
+    }
+
+    /**
+     * Calculates the loyalty points of an order.
+     *
+     * @param rules
+     * @param order
+     * @return loyalty points
+     */
+    public static int calculatePoints(EarningRules rules, Order order) {
+        String category = order.getCategory();
+        if (category != null && category.length() > Order.MAX_CATEGORY_LENGTH) {
+            throw new IllegalArgumentException("Category must not be longer than " + Order.MAX_CATEGORY_LENGTH
+                    + " characters");
+        }
+        return rules.calculatePoints(order.getTotalAmount(), category, order.getOrderDate());
+    }
+
+    /**
+     * Compiles new rules and swaps them in. A definition left null keeps the one in
+     * force, an empty one removes all categories or promotions. Invalid definitions
+     * leave the rules in force unchanged.
+     *
+     * @param tiers
+     * @param categoryMultipliers
+     * @param promotions
+     * @return rules now in force
+     */
+    public EarningRules update(String tiers, String categoryMultipliers, String promotions) {
+        EarningRules updated = rules.updateAndGet(current -> EarningRules.compile(
+                tiers == null ? current.getTiers() : tiers,
+                categoryMultipliers == null ? current.getCategoryMultipliers() : categoryMultipliers,
+                promotions == null ? current.getPromotions() : promotions));
+        log.info("Earning rules updated, tiers {}, category multipliers {}, promotions {}", updated.getTiers(),
+                updated.getCategoryMultipliers(), updated.getPromotions());
+        return updated;
+    }
+}
@@ -0,0 +1,230 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.CustomerLoyaltyReport;
+import com.retail.loyaltyservice.model.CustomerPeriodPoints;
+import com.retail.loyaltyservice.model.LoyaltyReportRequest;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Monthly loyalty points of many customers at once. Customers are split into chunks of sorted ids, and each chunk is
+ * aggregated in its own read-only transaction on a shared fork-join pool, with one query per summary period over the
+ * id range of the chunk. Ranges rather than lists of ids, as databases such as H2 test a long IN list of parameters
+ * row by row. Reports are handed out chunk by chunk as chunks complete, and only a few chunks per worker are in
+ * flight, so memory stays bounded however many customers are reported. Like the summary, the report reads persisted
+ * points, so write-behind points not yet flushed are left out.
+ */
+@Service
+@Timed("loyalty.service")
+@Slf4j
+public class LoyaltyReportService {
+
+    private static final int CHUNKS_IN_FLIGHT_PER_WORKER = 2;
+
+    private static final int MAX_SPAN_PER_CHUNK_SIZE = 10;
+
+    private final CustomerRepository customerRepo;
+
+    private final OrderRepository orderRepo;
+
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ForkJoinPool pool;
+
+    private final int chunkSize;
+
+    public LoyaltyReportService(CustomerRepository customerRepo, OrderRepository orderRepo,
+            CustomerMonthlyPointsRepository monthlyPointsRepo, PlatformTransactionManager transactionManager,
+            @Value("${loyalty.service.report.parallelism}") int parallelism,
+            @Value("${loyalty.service.report.chunk_size}") int chunkSize) {
+        this.customerRepo = customerRepo;
+        this.orderRepo = orderRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Validates a report request, so that it can be rejected before the report is streamed.
+     *
+     * @param request
+     */
+    public void checkRequest(LoyaltyReportRequest request) {
+        if (request.getStartDate() == null || request.getEndDate() == null) {
+            throw new IllegalArgumentException("Start and end date are required");
+        }
+        if (request.getStartDate().isAfter(request.getEndDate())) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (request.isAllCustomers() == (request.getCustomerIds() != null)) {
+            throw new IllegalArgumentException("Either customer ids or all customers must be requested");
+        }
+    }
+
+    /**
+     * Reports the monthly loyalty points of the requested customers for given date
+     * range. Customers without orders in the range are left out. Reports of a chunk
+     * are handed to the consumer in customer id order, chunks in the order they
+     * complete.
+     *
+     * @param request
+     * @param consumer called on the calling thread
+     */
+    public void report(LoyaltyReportRequest request, Consumer<CustomerLoyaltyReport> consumer) {
+        checkRequest(request);
+        Iterator<long[]> chunks = request.isAllCustomers() ? new AllCustomerChunks()
+                : listChunks(request.getCustomerIds());
+        CompletionService<List<CustomerLoyaltyReport>> completionService = new ExecutorCompletionService<>(pool);
+        Set<Future<List<CustomerLoyaltyReport>>> inFlight = new HashSet<>();
+        int maxInFlight = CHUNKS_IN_FLIGHT_PER_WORKER * pool.getParallelism();
+        int customers = 0;
+        try {
+            while (chunks.hasNext() || !inFlight.isEmpty()) {
+                while (inFlight.size() < maxInFlight && chunks.hasNext()) {
+                    long[] chunk = chunks.next();
+                    inFlight.add(completionService.submit(() -> aggregate(chunk, request.getStartDate(),
+                            request.getEndDate())));
+                }
+                Future<List<CustomerLoyaltyReport>> completed = completionService.take();
+                inFlight.remove(completed);
+                List<CustomerLoyaltyReport> reports = completed.get();
+                reports.forEach(consumer);
+                customers += reports.size();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reporting loyalty points", ex);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(ex.getCause());
+        } finally {
+            // Left over when the consumer failed, for example when the client went away
+            inFlight.forEach(future -> future.cancel(false));
+        }
+        log.debug("Reported loyalty points of {} customers", customers);
+    }
+
+    private List<CustomerLoyaltyReport> aggregate(long[] customerIds, LocalDate startDate, LocalDate endDate) {
+        long fromId = customerIds[0];
+        long toId = customerIds[customerIds.length - 1];
+        MonthlyPointsMatrix matrix = new MonthlyPointsMatrix(customerIds, YearMonth.from(startDate),
+                YearMonth.from(endDate));
+        transactionTemplate.executeWithoutResult(status -> {
+            for (SummaryPeriod period : SummaryPeriod.split(startDate, endDate)) {
+                List<CustomerPeriodPoints> rows = period.wholeMonths()
+                        ? monthlyPointsRepo.findPeriodPointsByCustomerIdBetween(fromId, toId, period.startPeriod(),
+                                period.endPeriod())
+                        : orderRepo.aggregatePeriodPointsByCustomerIdBetween(fromId, toId, period.startDate(),
+                                period.endDate());
+                rows.forEach(row -> matrix.add(row.customerId(), row.period(), row.points()));
+            }
+        });
+        return matrix.toReports();
+    }
+
+    /**
+     * Chunks of the sorted requested ids. A chunk also ends once its ids span more than
+     * {@value #MAX_SPAN_PER_CHUNK_SIZE} times the chunk size, so that a sparse list never reads the points of many
+     * customers that were not requested.
+     */
+    private Iterator<long[]> listChunks(List<Long> customerIds) {
+        long[] sorted = customerIds.stream()
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .distinct()
+                .toArray();
+        long maxSpan = (long) MAX_SPAN_PER_CHUNK_SIZE * chunkSize;
+        return new Iterator<>() {
+
+            private int from;
+
+            @Override
+            public boolean hasNext() {
+                return from < sorted.length;
+            }
+
+            @Override
+            public long[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int to = from + 1;
+                while (to < sorted.length && to - from < chunkSize && sorted[to] - sorted[from] < maxSpan) {
+                    to++;
+                }
+                long[] chunk = Arrays.copyOfRange(sorted, from, to);
+                from = to;
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * Ids of all customers, read page by page after the last id of the previous chunk.
+     */
+    private class AllCustomerChunks implements Iterator<long[]> {
+
+        private long[] next;
+
+        private long afterId;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = customerRepo.findIdsAfter(afterId, PageRequest.of(0, chunkSize)).stream()
+                        .mapToLong(Long::longValue)
+                        .toArray();
+            }
+            return next.length > 0;
+        }
+
+        @Override
+        public long[] next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            long[] chunk = next;
+            afterId = chunk[chunk.length - 1];
+            next = null;
+            return chunk;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -3,16 +3,18 @@ package com.retail.loyaltyservice.service;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.LoyaltySummary;
 import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
-import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
 import com.retail.loyaltyservice.repository.CustomerRepository;
 import com.retail.loyaltyservice.repository.OrderRepository;
-import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +22,7 @@ import java.util.Optional;
  * Loyalty API service implementation.
  */
 @Service
+@Timed("loyalty.service")
 @Slf4j
 @Transactional
 public class LoyaltyService {
@@ -28,30 +31,45 @@ public class LoyaltyService {
 
     private final OrderRepository orderRepo;
 
-    public LoyaltyService(CustomerRepository customerRepo, OrderRepository orderRepo) {
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private final PointsAccumulator pointsAccumulator;
+
+    public LoyaltyService(CustomerRepository customerRepo, OrderRepository orderRepo,
+            CustomerMonthlyPointsRepository monthlyPointsRepo, PointsAccumulator pointsAccumulator) {
         this.customerRepo = customerRepo;
         this.orderRepo = orderRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.pointsAccumulator = pointsAccumulator;
     }
 
     /**
-     * Method to get a summary of loyalty points of given customer.
+     * Method to get a summary of loyalty points of given customer. In write-behind
+     * mode the points not yet flushed are included.
      *
      * @param customerId
      * @return loyalty points
      */
     public int getLoyaltyPoints(Long customerId) {
-        Optional<Customer> customer = customerRepo.findById(customerId);
-        if (customer.isEmpty()) {
-            throw new EntityNotFoundException("Customer not found for given Id: " + customerId);
-        }
-        int totalLoyaltyPoints = customer.get().getLoyaltyPoints();
+        int totalLoyaltyPoints = pointsAccumulator.isEnabled()
+                ? pointsAccumulator.getLoyaltyPoints(customerId, () -> getPersistedLoyaltyPoints(customerId))
+                : getPersistedLoyaltyPoints(customerId);
         log.debug("Total Loyalty points available for customer is " + totalLoyaltyPoints);
         return totalLoyaltyPoints;
     }
 
+    private int getPersistedLoyaltyPoints(Long customerId) {
+        Optional<Integer> loyaltyPoints = customerRepo.findLoyaltyPointsById(customerId);
+        if (loyaltyPoints.isEmpty()) {
+            throw new EntityNotFoundException("Customer not found for given Id: " + customerId);
+        }
+        return loyaltyPoints.get();
+    }
+
     /**
      * Method to get a summary of loyalty points of given customer for given date
-     * range.
+     * range. Whole months are read from the monthly rollup, only the partial months
+     * at either end of the range are aggregated from the orders by the database.
      * 
      * @param customerId
      * @param startDate
@@ -64,18 +82,45 @@ public class LoyaltyService {
             throw new EntityNotFoundException("Customer not found for given Id: " + customerId);
         }
         Customer customer = customerOptional.get();
-        if (customer.getLoyaltyPoints() == 0) {
+        // Pending write-behind points count towards the total, the monthly rollup catches up on the next flush
+        int totalPoints = customer.getLoyaltyPoints()
+                + (pointsAccumulator.isEnabled() ? pointsAccumulator.getPendingPoints(customerId) : 0);
+        if (totalPoints == 0) {
             throw new EntityNotFoundException("No Loyalty points awarded for customer yet");
         }
-        List<Order> orders = orderRepo.findByCustomer(customer);
-        log.debug("Fetching Loyalty points for Customer : " + customerOptional.get().getName());
-        List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = LoyaltyPointsUtil.getMonthlyLoyaltyPoints(orders, startDate,
-                endDate);
-        log.debug("Total Loyalty points is " + customer.getLoyaltyPoints());
+        log.debug("Fetching Loyalty points for Customer : " + customer.getName());
+        List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = getMonthlyLoyaltyPoints(customerId, startDate, endDate);
+        log.debug("Total Loyalty points is " + totalPoints);
         return LoyaltySummary.builder()
                 .customer(customer)
                 .monthlyLoyaltyPoints(monthlyLoyaltyPoints)
-                .totalPoints(customer.getLoyaltyPoints())
+                .totalPoints(totalPoints)
+                .build();
+    }
+
+    private List<MonthlyLoyaltyPoints> getMonthlyLoyaltyPoints(Long customerId, LocalDate startDate,
+            LocalDate endDate) {
+        List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = new ArrayList<>();
+        for (SummaryPeriod period : SummaryPeriod.split(startDate, endDate)) {
+            if (period.wholeMonths()) {
+                monthlyPointsRepo.findByCustomerIdAndPeriodBetweenOrderByPeriod(customerId, period.startPeriod(),
+                        period.endPeriod())
+                        .forEach(rollup -> monthlyLoyaltyPoints.add(toMonthlyLoyaltyPoints(rollup.toYearMonth(),
+                                rollup.getPoints())));
+            } else {
+                orderRepo.aggregateMonthlyLoyaltyPoints(customerId, period.startDate(), period.endDate())
+                        .forEach(aggregate -> monthlyLoyaltyPoints.add(toMonthlyLoyaltyPoints(
+                                YearMonth.of(aggregate.getYear(), aggregate.getMonth()), aggregate.getPoints())));
+            }
+        }
+        return monthlyLoyaltyPoints;
+    }
+
+    static MonthlyLoyaltyPoints toMonthlyLoyaltyPoints(YearMonth yearMonth, long points) {
+        return MonthlyLoyaltyPoints.builder()
+                .month(yearMonth.getMonthValue())
+                .year(yearMonth.getYear())
+                .points(points)
                 .build();
     }
 
@@ -0,0 +1,93 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.CustomerLoyaltyReport;
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Monthly points of a chunk of customers, kept in flat primitive arrays indexed by the position of the customer in
+ * the sorted chunk and the month in the report range, so aggregating rows neither boxes keys nor allocates per row.
+ * Months with orders worth 0 points are told apart from months without orders, which a summary leaves out.
+ */
+final class MonthlyPointsMatrix {
+
+    private final long[] customerIds;
+
+    private final YearMonth firstMonth;
+
+    private final int months;
+
+    private final long[] points;
+
+    private final BitSet present;
+
+    /**
+     * @param customerIds sorted, without duplicates
+     * @param firstMonth
+     * @param lastMonth
+     */
+    MonthlyPointsMatrix(long[] customerIds, YearMonth firstMonth, YearMonth lastMonth) {
+        this.customerIds = customerIds;
+        this.firstMonth = firstMonth;
+        this.months = Math.toIntExact(firstMonth.until(lastMonth, ChronoUnit.MONTHS) + 1);
+        this.points = new long[Math.multiplyExact(customerIds.length, months)];
+        this.present = new BitSet(points.length);
+    }
+
+    /**
+     * Adds points of a customer in a month encoded as yyyyMM. Points of customers
+     * not in the chunk are ignored, as chunks are read by id range.
+     *
+     * @param customerId
+     * @param period
+     * @param points
+     */
+    void add(long customerId, int period, long points) {
+        int customer = Arrays.binarySearch(customerIds, customerId);
+        if (customer < 0) {
+            return;
+        }
+        int month = (period / 100 - firstMonth.getYear()) * 12 + period % 100 - firstMonth.getMonthValue();
+        if (month < 0 || month >= months) {
+            throw new IllegalArgumentException("Period " + period + " not in range");
+        }
+        int cell = customer * months + month;
+        this.points[cell] += points;
+        present.set(cell);
+    }
+
+    /**
+     * Reports of the customers with orders in the range, in customer id order.
+     *
+     * @return reports
+     */
+    List<CustomerLoyaltyReport> toReports() {
+        List<CustomerLoyaltyReport> reports = new ArrayList<>();
+        for (int customer = 0; customer < customerIds.length; customer++) {
+            int row = customer * months;
+            int cell = present.nextSetBit(row);
+            if (cell < 0 || cell >= row + months) {
+                continue;
+            }
+            List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = new ArrayList<>();
+            long totalPoints = 0;
+            for (; cell >= 0 && cell < row + months; cell = present.nextSetBit(cell + 1)) {
+                monthlyLoyaltyPoints.add(LoyaltyService.toMonthlyLoyaltyPoints(firstMonth.plusMonths(cell - row),
+                        points[cell]));
+                totalPoints += points[cell];
+            }
+            reports.add(CustomerLoyaltyReport.builder()
+                    .customerId(customerIds[customer])
+                    .monthlyLoyaltyPoints(monthlyLoyaltyPoints)
+                    .totalPoints(totalPoints)
+                    .build());
+        }
+        return reports;
+    }
+}
@@ -0,0 +1,127 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.config.CacheConfig;
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderResponse;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import com.retail.loyaltyservice.util.BloomFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Detects retried order requests by their idempotency key. Keys of created orders
+ * are added to a Bloom filter, so a new key is told apart in memory and the usual
+ * request costs no query. Only a key the filter may have seen is looked up, first
+ * in a bounded cache of recent responses, then in the orders table. The unique
+ * key column stays the authority: the filter starts empty after a restart, and a
+ * retry racing the first request is only caught by the insert failing.
+ */
+@Component
+@Slf4j
+public class OrderIdempotency {
+
+    private final OrderRepository orderRepo;
+
+    private final LoyaltyMetrics loyaltyMetrics;
+
+    private final BloomFilter keys;
+
+    private final Cache replays;
+
+    public OrderIdempotency(OrderRepository orderRepo, LoyaltyMetrics loyaltyMetrics, CacheManager cacheManager,
+            @Value("${loyalty.service.idempotency.expected_keys}") long expectedKeys,
+            @Value("${loyalty.service.idempotency.false_positive_rate}") double falsePositiveRate) {
+        this.orderRepo = orderRepo;
+        this.loyaltyMetrics = loyaltyMetrics;
+        this.keys = BloomFilter.create(expectedKeys, falsePositiveRate);
+        this.replays = cacheManager.getCache(CacheConfig.ORDER_REPLAYS_CACHE);
+        log.info("Idempotency key filter of {} bits with {} hash functions", keys.getBits(), keys.getHashFunctions());
+    }
+
+    /**
+     * Finds the response to the request that first used the idempotency key of an
+     * order. Returns empty without a query when the filter has not seen the key.
+     *
+     * @param order requested order
+     * @return response to the first request, empty when the key is new or the
+     *         order has none
+     * @throws IllegalArgumentException when the key is too long or was used for a
+     *                                  different order
+     */
+    public Optional<OrderResponse> findReplay(Order order) {
+        String key = order.getIdempotencyKey();
+        if (key == null) {
+            return Optional.empty();
+        }
+        if (key.isEmpty() || key.length() > Order.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + Order.MAX_IDEMPOTENCY_KEY_LENGTH
+                    + " characters");
+        }
+        if (!keys.mightContain(key)) {
+            return Optional.empty();
+        }
+        Optional<OrderResponse> original = findOriginal(order);
+        if (original.isEmpty()) {
+            loyaltyMetrics.idempotencyFalsePositive();
+        }
+        return original;
+    }
+
+    /**
+     * Finds the response to the request that first used the idempotency key of an
+     * order, after saving the order failed. Always looks the key up, as the filter
+     * may not have seen it yet.
+     *
+     * @param order requested order
+     * @return response to the first request, empty when no order has the key
+     * @throws IllegalArgumentException when the key was used for a different order
+     */
+    public Optional<OrderResponse> findConflicting(Order order) {
+        return order.getIdempotencyKey() == null ? Optional.empty() : findOriginal(order);
+    }
+
+    /**
+     * Records the response to an order created with an idempotency key, once the
+     * order is committed.
+     *
+     * @param response
+     */
+    public void created(OrderResponse response) {
+        if (response.getIdempotencyKey() != null) {
+            keys.put(response.getIdempotencyKey());
+            replays.put(response.getIdempotencyKey(), response);
+        }
+    }
+
+    private Optional<OrderResponse> findOriginal(Order order) {
+        String key = order.getIdempotencyKey();
+        OrderResponse original = replays.get(key, OrderResponse.class);
+        if (original == null) {
+            Optional<Order> saved = orderRepo.findWithCustomerByIdempotencyKey(key);
+            if (saved.isEmpty()) {
+                return Optional.empty();
+            }
+            original = OrderResponse.from(saved.get());
+            keys.put(key);
+            replays.put(key, original);
+        }
+        if (!isSameOrder(original, order)) {
+            throw new IllegalArgumentException("Idempotency key " + key + " was used for a different order");
+        }
+        loyaltyMetrics.orderReplayed();
+        return Optional.of(original);
+    }
+
+    private static boolean isSameOrder(OrderResponse original, Order order) {
+        Long customerId = order.getCustomer() == null ? null : order.getCustomer().getId();
+        return Objects.equals(original.getCustomer().getId(), customerId) && order.getTotalAmount() != null
+                && original.getTotalAmount().compareTo(order.getTotalAmount()) == 0;
+    }
+}
@@ -0,0 +1,143 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderBatchSummary;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import com.retail.loyaltyservice.util.EarningRules;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batch order ingestion service implementation. A batch is ingested in one
+ * transaction with one customer lookup, JDBC batched order and ledger inserts
+ * and one balance update per customer.
+ */
+@Service
+@Timed("loyalty.service")
+@Slf4j
+@Transactional
+public class OrderIngestionService {
+
+    private final OrderRepository orderRepo;
+
+    private final CustomerRepository customerRepo;
+
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private final PointsLedgerService pointsLedger;
+
+    private final CustomerVersions customerVersions;
+
+    private final EntityManager entityManager;
+
+    private final LoyaltyMetrics loyaltyMetrics;
+
+    private final EarningRuleEngine earningRuleEngine;
+
+    @Value("${loyalty.service.ingestion_batch_size}")
+    private int batchSize;
+
+    public OrderIngestionService(OrderRepository orderRepo, CustomerRepository customerRepo,
+            CustomerMonthlyPointsRepository monthlyPointsRepo, PointsLedgerService pointsLedger,
+            CustomerVersions customerVersions, EntityManager entityManager, LoyaltyMetrics loyaltyMetrics,
+            EarningRuleEngine earningRuleEngine) {
+        this.orderRepo = orderRepo;
+        this.customerRepo = customerRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.pointsLedger = pointsLedger;
+        this.customerVersions = customerVersions;
+        this.entityManager = entityManager;
+        this.loyaltyMetrics = loyaltyMetrics;
+        this.earningRuleEngine = earningRuleEngine;
+    }
+
+    /**
+     * Method to create a batch of orders.
+     *
+     * @param orders
+     * @return OrderBatchSummary
+     */
+    public OrderBatchSummary createAll(List<Order> orders) {
+        Map<Long, Customer> customers = findCustomers(orders);
+        // The whole batch is calculated with the same rules, even when they are swapped meanwhile
+        EarningRules rules = earningRuleEngine.getRules();
+
+        // Sorted by customer id so that concurrent batches lock customer rows in the same order
+        Map<Long, Long> pointsByCustomer = new TreeMap<>();
+        Map<Long, Map<YearMonth, Long>> pointsByCustomerMonth = new HashMap<>();
+        long pointsAwarded = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            Customer customer = customers.get(order.getCustomer().getId());
+            order.setCustomer(customer);
+            int loyaltyPoints = loyaltyMetrics
+                    .calculatePoints(() -> EarningRuleEngine.calculatePoints(rules, order));
+            order.setLoyaltyPoints(loyaltyPoints);
+            pointsAwarded += loyaltyPoints;
+            pointsByCustomer.merge(customer.getId(), (long) loyaltyPoints, Long::sum);
+            if (order.getOrderDate() != null) {
+                pointsByCustomerMonth.computeIfAbsent(customer.getId(), id -> new HashMap<>())
+                        .merge(YearMonth.from(order.getOrderDate()), (long) loyaltyPoints, Long::sum);
+            }
+            orderRepo.save(order);
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        pointsLedger.earnAll(orders);
+        pointsByCustomer.forEach((customerId, points) -> {
+            customerRepo.addLoyaltyPoints(customerId, Math.toIntExact(points));
+            pointsByCustomerMonth.getOrDefault(customerId, Map.of())
+                    .forEach((yearMonth, monthlyPoints) -> monthlyPointsRepo.addPoints(customerId, yearMonth,
+                            monthlyPoints));
+        });
+        customerVersions.bumpAll(pointsByCustomer.keySet());
+        loyaltyMetrics.orderCreated(orders.size(), pointsAwarded);
+        log.debug("Ingested {} orders for {} customers", orders.size(), pointsByCustomer.size());
+        return OrderBatchSummary.builder()
+                .ordersCreated(orders.size())
+                .customersUpdated(pointsByCustomer.size())
+                .pointsAwarded(pointsAwarded)
+                .build();
+    }
+
+    private Map<Long, Customer> findCustomers(List<Order> orders) {
+        Set<Long> customerIds = new HashSet<>();
+        for (Order order : orders) {
+            if (order.getCustomer() == null || order.getCustomer().getId() == null) {
+                throw new IllegalArgumentException("Customer id missing in order");
+            }
+            customerIds.add(order.getCustomer().getId());
+        }
+        Map<Long, Customer> customers = customerRepo.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        if (customers.size() != customerIds.size()) {
+            customerIds.removeAll(customers.keySet());
+            throw new EntityNotFoundException("Customers not found for given Ids: " + customerIds);
+        }
+        return customers;
+    }
+}
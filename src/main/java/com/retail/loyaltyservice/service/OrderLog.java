@@ -0,0 +1,430 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.OrderLogOffsetRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped append-only log of accepted orders, for the order log ingestion mode. Records have a fixed size and
+ * are written to segment files in loyalty.service.order_log.directory, each named after the offset of its first
+ * record and rotated once it holds loyalty.service.order_log.segment_size_bytes. An order is acknowledged once its
+ * record is forced to disk as set by loyalty.service.order_log.fsync: per_write forces every record on its own,
+ * per_batch forces all records appended so far for the first waiting writer, so concurrent writers share one force,
+ * and timed forces every fsync_interval_ms with writers waiting for it. OrderLogApplier drains the log into the
+ * database.
+ */
+@Component
+@Slf4j
+public class OrderLog {
+
+    /**
+     * Name of the log in the order_log_offsets table.
+     */
+    public static final String NAME = "orders";
+
+    /**
+     * Customer id (8 bytes), unscaled total amount (8), scale of the total amount (2), order date as epoch day or
+     * NO_ORDER_DATE (4), length of the UTF-8 category or NO_CATEGORY (1), room for the category (32) and the
+     * CRC32 of the preceding bytes (4). A slot failing the check ends the log, which covers both the zeroed tail of a
+     * segment and a record torn by a crash.
+     */
+    static final int RECORD_SIZE = 59;
+
+    private static final int CATEGORY_POSITION = 22;
+
+    private static final int CHECKSUM_POSITION = CATEGORY_POSITION + 1 + Order.MAX_CATEGORY_LENGTH;
+
+    private static final int NO_ORDER_DATE = Integer.MIN_VALUE;
+
+    private static final byte NO_CATEGORY = -1;
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("\\d{20}\\.log");
+
+    private final boolean enabled;
+
+    private final Path directory;
+
+    private final int segmentCapacity;
+
+    private final FsyncPolicy fsyncPolicy;
+
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Held while writing a record, guards current and nextOffset.
+     */
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    /**
+     * Held while forcing, so that writers waiting behind a force find their record already forced by it.
+     */
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private final ReentrantLock durableLock = new ReentrantLock();
+
+    private final Condition durableChanged = durableLock.newCondition();
+
+    private Segment current;
+
+    private long nextOffset;
+
+    /**
+     * Offset of the first record not yet forced to disk. Only records below it are acknowledged and applied.
+     */
+    private volatile long durableOffset;
+
+    public OrderLog(OrderLogOffsetRepository offsetRepo,
+            @Value("${loyalty.service.order_log.enabled}") boolean enabled,
+            @Value("${loyalty.service.order_log.directory}") Path directory,
+            @Value("${loyalty.service.order_log.segment_size_bytes}") int segmentSize,
+            @Value("${loyalty.service.order_log.fsync}") FsyncPolicy fsyncPolicy) {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Order log segments must hold at least one record of "
+                    + RECORD_SIZE + " bytes");
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentCapacity = segmentSize / RECORD_SIZE;
+        this.fsyncPolicy = fsyncPolicy;
+        if (enabled) {
+            open(offsetRepo.findCommittedOffset(NAME));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getDurableOffset() {
+        return durableOffset;
+    }
+
+    /**
+     * Maps the existing segments and finds the end of the log, the first record failing its check in the last
+     * segment. Records up to the end were forced before a crash or written before a shutdown, so they count as
+     * durable.
+     */
+    private void open(long committedOffset) {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                        .toList()) {
+                    long baseOffset = Long.parseLong(file.getFileName().toString().substring(0, 20));
+                    segments.put(baseOffset, map(file, baseOffset, Files.size(file)));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Opening the order log in " + directory + " failed", ex);
+        }
+        if (segments.isEmpty()) {
+            current = createSegment(committedOffset);
+            segments.put(committedOffset, current);
+            nextOffset = committedOffset;
+        } else {
+            current = segments.lastEntry().getValue();
+            int records = 0;
+            while (records < current.capacity() && isValid(current.buffer(), records * RECORD_SIZE)) {
+                records++;
+            }
+            nextOffset = current.baseOffset() + records;
+        }
+        if (segments.firstKey() > committedOffset || nextOffset < committedOffset) {
+            throw new IllegalStateException("Order log in " + directory + " holds offsets " + segments.firstKey()
+                    + " to " + nextOffset + ", which do not cover the committed offset " + committedOffset);
+        }
+        durableOffset = nextOffset;
+        release(committedOffset);
+        log.info("Opened order log in {} at offset {}, {} records not yet applied", directory, nextOffset,
+                nextOffset - committedOffset);
+    }
+
+    /**
+     * Appends the record of an order and waits until it is durable.
+     *
+     * @param customerId
+     * @param totalAmount
+     * @param orderDate   null when the order has no order date
+     * @param category    null when the order has no category
+     * @return offset of the record
+     */
+    public long append(long customerId, BigDecimal totalAmount, LocalDate orderDate, String category) {
+        if (!enabled) {
+            throw new IllegalStateException("Order log is not enabled");
+        }
+        BigInteger unscaledAmount = totalAmount.unscaledValue();
+        if (unscaledAmount.bitLength() > Long.SIZE - 1 || totalAmount.scale() != (short) totalAmount.scale()) {
+            throw new IllegalArgumentException("Order amount out of range for the order log: " + totalAmount);
+        }
+        byte[] categoryBytes = category == null ? null : category.getBytes(StandardCharsets.UTF_8);
+        if (categoryBytes != null && categoryBytes.length > Order.MAX_CATEGORY_LENGTH) {
+            throw new IllegalArgumentException("Category longer than " + Order.MAX_CATEGORY_LENGTH
+                    + " bytes in UTF-8: " + category);
+        }
+        long offset;
+        appendLock.lock();
+        try {
+            if (nextOffset == current.baseOffset() + current.capacity()) {
+                // Forced in full here, so that forcing the current segment always covers every appended record
+                current.buffer().force();
+                current = createSegment(nextOffset);
+                segments.put(nextOffset, current);
+            }
+            offset = nextOffset;
+            int position = (int) (offset - current.baseOffset()) * RECORD_SIZE;
+            write(current.buffer(), position, customerId, unscaledAmount.longValue(), (short) totalAmount.scale(),
+                    orderDate == null ? NO_ORDER_DATE : Math.toIntExact(orderDate.toEpochDay()), categoryBytes);
+            nextOffset = offset + 1;
+            if (fsyncPolicy == FsyncPolicy.PER_WRITE) {
+                current.buffer().force(position, RECORD_SIZE);
+                markDurable(nextOffset);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        if (fsyncPolicy == FsyncPolicy.PER_BATCH && durableOffset <= offset) {
+            forceLock.lock();
+            try {
+                if (durableOffset <= offset) {
+                    forceAppended();
+                }
+            } finally {
+                forceLock.unlock();
+            }
+        }
+        awaitDurable(offset + 1);
+        return offset;
+    }
+
+    /**
+     * Forces the records appended since the previous run, in timed mode.
+     */
+    @Scheduled(fixedDelayString = "${loyalty.service.order_log.fsync_interval_ms}")
+    public void forceOnInterval() {
+        if (!enabled || fsyncPolicy != FsyncPolicy.TIMED) {
+            return;
+        }
+        forceLock.lock();
+        try {
+            forceAppended();
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void forceAppended() {
+        long upToOffset;
+        Segment segment;
+        appendLock.lock();
+        try {
+            upToOffset = nextOffset;
+            segment = current;
+        } finally {
+            appendLock.unlock();
+        }
+        if (upToOffset > durableOffset) {
+            // Records of earlier segments were forced when the segment was rotated
+            segment.buffer().force();
+            markDurable(upToOffset);
+        }
+    }
+
+    private void markDurable(long offset) {
+        durableLock.lock();
+        try {
+            if (offset > durableOffset) {
+                durableOffset = offset;
+                durableChanged.signalAll();
+            }
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    private void awaitDurable(long offset) {
+        if (durableOffset >= offset) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durableOffset < offset) {
+                durableChanged.await();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the order log to be forced", ex);
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Reads durable records in offset order.
+     *
+     * @param fromOffset offset of the first record
+     * @param maxRecords
+     * @return records, empty when there is no durable record at fromOffset
+     */
+    public List<Entry> read(long fromOffset, int maxRecords) {
+        long toOffset = Math.min(durableOffset, fromOffset + maxRecords);
+        List<Entry> entries = new ArrayList<>((int) Math.max(toOffset - fromOffset, 0));
+        for (long offset = fromOffset; offset < toOffset; offset++) {
+            Segment segment = segments.floorEntry(offset).getValue();
+            int position = (int) (offset - segment.baseOffset()) * RECORD_SIZE;
+            ByteBuffer buffer = segment.buffer();
+            if (!isValid(buffer, position)) {
+                throw new IllegalStateException("Order log record at offset " + offset + " is corrupt");
+            }
+            int orderDate = buffer.getInt(position + 18);
+            byte categoryLength = buffer.get(position + CATEGORY_POSITION);
+            String category = null;
+            if (categoryLength != NO_CATEGORY) {
+                byte[] categoryBytes = new byte[categoryLength];
+                buffer.get(position + CATEGORY_POSITION + 1, categoryBytes);
+                category = new String(categoryBytes, StandardCharsets.UTF_8);
+            }
+            entries.add(new Entry(offset, buffer.getLong(position),
+                    BigDecimal.valueOf(buffer.getLong(position + 8), buffer.getShort(position + 16)),
+                    orderDate == NO_ORDER_DATE ? null : LocalDate.ofEpochDay(orderDate), category));
+        }
+        return entries;
+    }
+
+    /**
+     * Deletes the segments whose records are all applied. Their mappings are released once they are garbage
+     * collected, as there is no API to unmap them.
+     *
+     * @param committedOffset offset of the first record not yet applied
+     */
+    public void release(long committedOffset) {
+        for (Segment segment : segments.headMap(committedOffset, false).values()) {
+            if (segment.baseOffset() + segment.capacity() > committedOffset
+                    || segment.baseOffset() == segments.lastKey()) {
+                continue;
+            }
+            segments.remove(segment.baseOffset());
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException ex) {
+                log.warn("Deleting applied order log segment {} failed : ", segment.path(), ex);
+            }
+        }
+    }
+
+    /**
+     * Forces any records appended but not yet forced, so that orders accepted in timed mode survive the shutdown.
+     */
+    @PreDestroy
+    public void forceOnShutdown() {
+        if (enabled) {
+            forceLock.lock();
+            try {
+                forceAppended();
+            } finally {
+                forceLock.unlock();
+            }
+        }
+    }
+
+    private Segment createSegment(long baseOffset) {
+        Path file = directory.resolve(String.format("%020d.log", baseOffset));
+        try {
+            Segment segment = map(file, baseOffset, (long) segmentCapacity * RECORD_SIZE);
+            // Makes the new file itself survive a crash, not only its contents
+            try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                directoryChannel.force(true);
+            }
+            return segment;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Creating order log segment " + file + " failed", ex);
+        }
+    }
+
+    private static Segment map(Path file, long baseOffset, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new Segment(baseOffset, (int) (size / RECORD_SIZE), file, buffer);
+        }
+    }
+
+    private static void write(ByteBuffer buffer, int position, long customerId, long unscaledAmount, short scale,
+            int orderDate, byte[] category) {
+        buffer.putLong(position, customerId);
+        buffer.putLong(position + 8, unscaledAmount);
+        buffer.putShort(position + 16, scale);
+        buffer.putInt(position + 18, orderDate);
+        // Bytes after the category are left as they are, they are covered by the checksum but never read
+        buffer.put(position + CATEGORY_POSITION, category == null ? NO_CATEGORY : (byte) category.length);
+        if (category != null) {
+            buffer.put(position + CATEGORY_POSITION + 1, category);
+        }
+        buffer.putInt(position + CHECKSUM_POSITION, checksum(buffer, position));
+    }
+
+    private static boolean isValid(ByteBuffer buffer, int position) {
+        return buffer.getInt(position + CHECKSUM_POSITION) == checksum(buffer, position);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position, CHECKSUM_POSITION));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * When an appended order is acknowledged.
+     */
+    public enum FsyncPolicy {
+        PER_WRITE, PER_BATCH, TIMED
+    }
+
+    /**
+     * Record of an accepted order.
+     */
+    public record Entry(long offset, long customerId, BigDecimal totalAmount, LocalDate orderDate, String category) {
+
+        /**
+         * @return unsaved order referencing its customer by id
+         */
+        public Order toOrder() {
+            return Order.builder()
+                    .customer(Customer.builder().id(customerId).build())
+                    .totalAmount(totalAmount)
+                    .orderDate(orderDate)
+                    .category(category)
+                    .build();
+        }
+    }
+
+    private record Segment(long baseOffset, int capacity, Path path, MappedByteBuffer buffer) {
+    }
+}
@@ -0,0 +1,86 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderLogOffset;
+import com.retail.loyaltyservice.repository.OrderLogOffsetRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drains the order log into the database. Each batch of records is ingested like POST /api/v1/orders/batch, and the
+ * committed offset of the log moves past the batch in the same transaction, so after a restart the applier resumes
+ * with the first record not yet applied and no order is saved or counted twice.
+ */
+@Component
+@Slf4j
+public class OrderLogApplier {
+
+    private final OrderLog orderLog;
+
+    private final OrderLogOffsetRepository offsetRepo;
+
+    private final OrderIngestionService orderIngestionService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final int batchSize;
+
+    public OrderLogApplier(OrderLog orderLog, OrderLogOffsetRepository offsetRepo,
+            OrderIngestionService orderIngestionService, PlatformTransactionManager transactionManager,
+            @Value("${loyalty.service.order_log.apply_batch_size}") int batchSize) {
+        this.orderLog = orderLog;
+        this.offsetRepo = offsetRepo;
+        this.orderIngestionService = orderIngestionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Applies the durable records of the order log in batches until none are left.
+     */
+    @Scheduled(fixedDelayString = "${loyalty.service.order_log.apply_interval_ms}")
+    public void apply() {
+        if (!orderLog.isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            long committedOffset;
+            do {
+                committedOffset = transactionTemplate.execute(status -> applyBatch());
+                // Only segments applied and committed can be deleted
+                orderLog.release(committedOffset);
+            } while (committedOffset < orderLog.getDurableOffset());
+        } catch (RuntimeException ex) {
+            log.error("Applying the order log failed, retrying on next run : ", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long applyBatch() {
+        long committedOffset = offsetRepo.findCommittedOffset(OrderLog.NAME);
+        List<OrderLog.Entry> entries = orderLog.read(committedOffset, batchSize);
+        if (entries.isEmpty()) {
+            return committedOffset;
+        }
+        List<Order> orders = entries.stream().map(OrderLog.Entry::toOrder).toList();
+        orderIngestionService.createAll(orders);
+        long nextOffset = committedOffset + entries.size();
+        offsetRepo.save(OrderLogOffset.builder()
+                .name(OrderLog.NAME)
+                .committedOffset(nextOffset)
+                .build());
+        log.debug("Applied order log records {} to {}", committedOffset, nextOffset - 1);
+        return nextOffset;
+    }
+}
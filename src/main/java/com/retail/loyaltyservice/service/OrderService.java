@@ -1,23 +1,38 @@
 package com.retail.loyaltyservice.service;
 
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderAccrualStatus;
+import com.retail.loyaltyservice.model.OrderPage;
+import com.retail.loyaltyservice.model.OrderResponse;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
 import com.retail.loyaltyservice.repository.CustomerRepository;
 import com.retail.loyaltyservice.repository.OrderRepository;
-import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Order API service implementation.
  */
 @Service
+@Timed("loyalty.service")
 @Slf4j
 @Transactional
 public class OrderService {
@@ -26,15 +41,43 @@ public class OrderService {
 
     private final CustomerRepository customerRepo;
 
-    @Value("${loyalty.service.spend_multiplier_over_fifty}")
-    private int spendMultiplierOverFifty;
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
 
-    @Value("${loyalty.service.spend_multiplier_over_hundred}")
-    private int spendMultiplierOverHundred;
+    private final PointsAccumulator pointsAccumulator;
 
-    public OrderService(OrderRepository orderRepo, CustomerRepository customerRepo) {
+    private final PointsLedgerService pointsLedger;
+
+    private final OrderLog orderLog;
+
+    private final CustomerVersions customerVersions;
+
+    private final EntityManager entityManager;
+
+    private final LoyaltyMetrics loyaltyMetrics;
+
+    private final EarningRuleEngine earningRuleEngine;
+
+    private final PointsAccrualPipeline pointsAccrual;
+
+    @Value("${loyalty.service.orders_page_max_size}")
+    private int pageMaxSize;
+
+    public OrderService(OrderRepository orderRepo, CustomerRepository customerRepo,
+            CustomerMonthlyPointsRepository monthlyPointsRepo, PointsAccumulator pointsAccumulator,
+            PointsLedgerService pointsLedger, OrderLog orderLog, CustomerVersions customerVersions,
+            EntityManager entityManager, LoyaltyMetrics loyaltyMetrics, EarningRuleEngine earningRuleEngine,
+            PointsAccrualPipeline pointsAccrual) {
         this.orderRepo = orderRepo;
         this.customerRepo = customerRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.pointsAccumulator = pointsAccumulator;
+        this.pointsLedger = pointsLedger;
+        this.orderLog = orderLog;
+        this.customerVersions = customerVersions;
+        this.entityManager = entityManager;
+        this.loyaltyMetrics = loyaltyMetrics;
+        this.earningRuleEngine = earningRuleEngine;
+        this.pointsAccrual = pointsAccrual;
     }
 
     /**
@@ -51,17 +94,80 @@ public class OrderService {
         Customer customer = customerOptional.get();
         order.setCustomer(customer);
 
-        Integer loyaltyPoints = LoyaltyPointsUtil.calculatePoints(order.getTotalAmount(), spendMultiplierOverFifty,
-                spendMultiplierOverHundred);
+        Integer loyaltyPoints = loyaltyMetrics.calculatePoints(() -> earningRuleEngine.calculatePoints(order));
         log.debug("Earned " + loyaltyPoints + " Loyalty points");
         order.setLoyaltyPoints(loyaltyPoints);
 
         Order createdOrder = orderRepo.save(order);
+        customerVersions.bump(customer.getId());
+        loyaltyMetrics.orderCreated(1, loyaltyPoints);
+        if (pointsAccrual.isEnabled()) {
+            // Points, ledger entry and rollup are added by the accrual consumer, the response shows the balance
+            // before this order
+            pointsAccrual.submit(createdOrder);
+            return createdOrder;
+        }
+        pointsLedger.earn(createdOrder);
+        YearMonth orderMonth = createdOrder.getOrderDate() == null ? null : YearMonth.from(createdOrder.getOrderDate());
+        if (pointsAccumulator.isEnabled()) {
+            // The balance and rollup are updated by the next flush, the response shows the balance before this order
+            pointsAccumulator.add(customer.getId(), orderMonth, loyaltyPoints);
+            return createdOrder;
+        }
+        // Locks the customer row until commit, which also keeps the monthly rollup upsert below free of races
+        customerRepo.addLoyaltyPoints(customer.getId(), loyaltyPoints);
+        // The customer is detached by now, this only reflects the new balance in the response
         customer.setLoyaltyPoints(customer.getLoyaltyPoints() + loyaltyPoints);
-        customerRepo.save(customer);
+        if (orderMonth != null) {
+            monthlyPointsRepo.addPoints(customer.getId(), orderMonth, loyaltyPoints);
+        }
         return createdOrder;
     }
 
+    /**
+     * Tells whether the points of an order have been added to the balance of its
+     * customer. Always true unless asynchronous accrual is enabled.
+     *
+     * @param orderId
+     * @return OrderAccrualStatus
+     */
+    public OrderAccrualStatus getAccrualStatus(Long orderId) {
+        if (!orderRepo.existsById(orderId)) {
+            throw new EntityNotFoundException("Order not found for given Id: " + orderId);
+        }
+        return OrderAccrualStatus.builder()
+                .orderId(orderId)
+                .applied(!pointsAccrual.isPending(orderId))
+                .build();
+    }
+
+    public boolean isOrderLogEnabled() {
+        return orderLog.isEnabled();
+    }
+
+    /**
+     * Accepts an order into the order log instead of saving it. Returns once the
+     * record is durable as set by loyalty.service.order_log.fsync, the order is
+     * saved and its points are added by OrderLogApplier. Runs without a transaction
+     * so that no connection is held while waiting for the log.
+     *
+     * @param order
+     * @return Order with its points, not yet saved
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Order accept(Order order) {
+        Optional<Customer> customer = customerRepo.findById(order.getCustomer().getId());
+        if (customer.isEmpty()) {
+            throw new EntityNotFoundException("Customer not found for given Id: " + order.getCustomer().getId());
+        }
+        order.setCustomer(customer.get());
+        order.setLoyaltyPoints(loyaltyMetrics.calculatePoints(() -> earningRuleEngine.calculatePoints(order)));
+        long offset = orderLog.append(customer.get().getId(), order.getTotalAmount(), order.getOrderDate(),
+                order.getCategory());
+        log.debug("Accepted order at order log offset {}", offset);
+        return order;
+    }
+
     /**
      * Fetches order by orderId.
      * 
@@ -69,7 +175,7 @@ public class OrderService {
      * @return Order
      */
     public Order get(Long orderId) {
-        Optional<Order> order = orderRepo.findById(orderId);
+        Optional<Order> order = orderRepo.findWithCustomerById(orderId);
         if (order.isEmpty()) {
             throw new EntityNotFoundException("Order not found for given Id: " + orderId);
         }
@@ -78,7 +184,8 @@ public class OrderService {
     }
 
     /**
-     * Fetches orders by customerId.
+     * Fetches orders by customerId. The orders share the customer loaded here, so it
+     * is not read again per order.
      * 
      * @param customerId
      * @return List<Order>
@@ -95,4 +202,82 @@ public class OrderService {
         log.debug("Fetched Order details for Customer Name : " + customer.get().getName());
         return orders;
     }
+
+    /**
+     * Fetches a page of orders by customerId, ordered by order date and id.
+     *
+     * @param customerId
+     * @param cursor     nextCursor of the previous page, or null for the first page
+     * @param size       number of orders, at most loyalty.service.orders_page_max_size
+     * @return OrderPage
+     */
+    public OrderPage getPageByCustomerId(Long customerId, String cursor, int size) {
+        if (size < 1 || size > pageMaxSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + pageMaxSize);
+        }
+        if (!customerRepo.existsById(customerId)) {
+            throw new EntityNotFoundException("Customer not found for given Id: " + customerId);
+        }
+        // One extra order tells whether there is a next page
+        Pageable pageable = PageRequest.ofSize(size + 1);
+        List<Order> orders;
+        if (cursor == null) {
+            orders = orderRepo.findFirstPageByCustomerId(customerId, pageable);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = after.orderDate() == null
+                    ? orderRepo.findPageByCustomerIdAfterUndated(customerId, after.id(), pageable)
+                    : orderRepo.findPageByCustomerIdAfter(customerId, after.orderDate(), after.id(), pageable);
+        }
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            Order last = orders.get(size - 1);
+            nextCursor = new OrderCursor(last.getOrderDate(), last.getId()).encode();
+        }
+        return OrderPage.builder()
+                .orders(orders.stream().map(OrderResponse::from).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Passes the orders of a customer to the action one at a time, ordered by order
+     * date and id, reading them from a database cursor instead of loading the list.
+     *
+     * @param customerId
+     * @param action
+     */
+    public void streamByCustomerId(Long customerId, Consumer<Order> action) {
+        try (Stream<Order> orders = orderRepo.streamByCustomerId(customerId)) {
+            orders.forEach(order -> {
+                action.accept(order);
+                // Keeps the persistence context from growing with every order read
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    /**
+     * Position of the last order of a page, encoded as an opaque URL-safe string.
+     */
+    private record OrderCursor(LocalDate orderDate, long id) {
+
+        String encode() {
+            String value = id + ":" + (orderDate == null ? "" : orderDate.toString());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static OrderCursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf(':');
+                String orderDate = value.substring(separator + 1);
+                return new OrderCursor(orderDate.isEmpty() ? null : LocalDate.parse(orderDate),
+                        Long.parseLong(value.substring(0, separator)));
+            } catch (RuntimeException ex) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor, ex);
+            }
+        }
+    }
 }
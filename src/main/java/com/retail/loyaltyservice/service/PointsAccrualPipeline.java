@@ -0,0 +1,287 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PendingAccrual;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PendingAccrualRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous points accrual. When enabled, an order is saved together with a pending accrual and acknowledged once
+ * it commits, and a consumer thread adds its points to the balance later. Accruals pass through a bounded ring buffer
+ * whose room is reserved in the order transaction, so when the buffer stays full for offer_timeout_ms the order is
+ * rejected rather than saved. The consumer drains up to batch_size accruals at a time and applies them in one
+ * transaction, with the ledger entries, one balance update per customer and one rollup update per customer and month.
+ * Pending accruals are replayed from the database at startup, so no points are lost when the process dies, and only
+ * the transaction that deletes a pending accrual applies it, so none are applied twice.
+ */
+@Component
+@Slf4j
+public class PointsAccrualPipeline {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final PendingAccrualRepository pendingRepo;
+
+    private final CustomerRepository customerRepo;
+
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private final PointsLedgerService pointsLedger;
+
+    private final CustomerVersions customerVersions;
+
+    private final EntityManager entityManager;
+
+    private final LoyaltyMetrics loyaltyMetrics;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final long offerTimeoutMs;
+
+    private final ArrayBlockingQueue<PendingAccrual> queue;
+
+    /**
+     * Room in the queue, taken in the order transaction and given back once the accrual is applied or the order
+     * rolled back, so that a committed accrual always fits in the queue.
+     */
+    private final Semaphore room;
+
+    private volatile boolean running;
+
+    private Thread consumer;
+
+    public PointsAccrualPipeline(PendingAccrualRepository pendingRepo, CustomerRepository customerRepo,
+            CustomerMonthlyPointsRepository monthlyPointsRepo, PointsLedgerService pointsLedger,
+            CustomerVersions customerVersions, EntityManager entityManager, LoyaltyMetrics loyaltyMetrics,
+            PlatformTransactionManager transactionManager,
+            @Value("${loyalty.service.async_accrual.enabled}") boolean enabled,
+            @Value("${loyalty.service.async_accrual.queue_capacity}") int queueCapacity,
+            @Value("${loyalty.service.async_accrual.batch_size}") int batchSize,
+            @Value("${loyalty.service.async_accrual.offer_timeout_ms}") long offerTimeoutMs,
+            @Value("${loyalty.service.write_behind.enabled}") boolean writeBehind) {
+        if (enabled && writeBehind) {
+            throw new IllegalStateException("Asynchronous accrual and write-behind mode cannot both be enabled");
+        }
+        this.pendingRepo = pendingRepo;
+        this.customerRepo = customerRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.pointsLedger = pointsLedger;
+        this.customerVersions = customerVersions;
+        this.entityManager = entityManager;
+        this.loyaltyMetrics = loyaltyMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.room = new Semaphore(queueCapacity);
+        loyaltyMetrics.accrualQueue(queue);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the consumer. Accruals left pending by an earlier run are applied
+     * first, also when asynchronous accrual has been disabled since.
+     */
+    @PostConstruct
+    public void start() {
+        running = enabled;
+        consumer = new Thread(this::consume, "points-accrual");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * Submits the accrual of a saved order. Must be called in the order
+     * transaction, the accrual is saved with the order and queued once it commits.
+     * Waits up to loyalty.service.async_accrual.offer_timeout_ms for room in the
+     * queue.
+     *
+     * @param order saved order with its customer and points
+     * @throws RejectedExecutionException when the queue stays full
+     */
+    public void submit(Order order) {
+        try {
+            if (!room.tryAcquire(offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                loyaltyMetrics.accrualRejected();
+                throw new RejectedExecutionException("Points accrual queue is full, retry later");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for the points accrual queue", ex);
+        }
+        PendingAccrual accrual = PendingAccrual.builder()
+                .orderId(order.getId())
+                .customerId(order.getCustomer().getId())
+                .points(order.getLoyaltyPoints())
+                .period(order.getOrderDate() == null ? null
+                        : CustomerMonthlyPoints.periodOf(YearMonth.from(order.getOrderDate())))
+                .createdAt(Instant.now())
+                .build();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    queue.add(accrual);
+                } else {
+                    room.release();
+                }
+            }
+        });
+        // Persisted rather than saved, so that the assigned id does not cost a select
+        entityManager.persist(accrual);
+    }
+
+    /**
+     * Whether the points of an order are still waiting to be added to the balance.
+     *
+     * @param orderId
+     * @return true while pending
+     */
+    public boolean isPending(Long orderId) {
+        return pendingRepo.existsById(orderId);
+    }
+
+    private void consume() {
+        replayPending();
+        List<PendingAccrual> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingAccrual first = queue.poll(POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            applyUntilDone(batch);
+            room.release(batch.size());
+            batch.clear();
+        }
+    }
+
+    private void replayPending() {
+        long afterOrderId = 0;
+        List<PendingAccrual> page;
+        do {
+            page = pendingRepo.findPendingAfter(afterOrderId, PageRequest.of(0, batchSize));
+            if (!page.isEmpty()) {
+                applyUntilDone(page);
+                afterOrderId = page.get(page.size() - 1).getOrderId();
+                log.info("Applied pending points accruals up to order {}", afterOrderId);
+            }
+        } while (page.size() == batchSize);
+    }
+
+    /**
+     * Applies a batch, retrying after a failure until it succeeds or the pipeline
+     * stops. A batch left over when it stops stays pending and is replayed on the
+     * next start.
+     */
+    private void applyUntilDone(List<PendingAccrual> batch) {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(batch));
+                Instant now = Instant.now();
+                batch.forEach(accrual -> loyaltyMetrics.accrualApplied(Duration.between(accrual.getCreatedAt(),
+                        now)));
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Applying {} points accruals failed, retrying : ", batch.size(), ex);
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(RETRY_DELAY.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void apply(List<PendingAccrual> batch) {
+        List<Order> earned = new ArrayList<>(batch.size());
+        // Sorted by customer id so that accruals lock customer rows in the same order as batch ingestion
+        Map<Long, Long> pointsByCustomer = new TreeMap<>();
+        Map<Long, Map<Integer, Long>> pointsByCustomerMonth = new HashMap<>();
+        for (PendingAccrual accrual : batch) {
+            if (pendingRepo.deletePending(accrual.getOrderId()) == 0) {
+                // Applied by a replay or another instance
+                continue;
+            }
+            earned.add(Order.builder()
+                    .id(accrual.getOrderId())
+                    .customer(Customer.builder().id(accrual.getCustomerId()).build())
+                    .loyaltyPoints(accrual.getPoints())
+                    .build());
+            pointsByCustomer.merge(accrual.getCustomerId(), (long) accrual.getPoints(), Long::sum);
+            if (accrual.getPeriod() != null) {
+                pointsByCustomerMonth.computeIfAbsent(accrual.getCustomerId(), id -> new HashMap<>())
+                        .merge(accrual.getPeriod(), (long) accrual.getPoints(), Long::sum);
+            }
+        }
+        pointsLedger.earnAll(earned);
+        pointsByCustomer.forEach((customerId, points) -> {
+            customerRepo.addLoyaltyPoints(customerId, Math.toIntExact(points));
+            pointsByCustomerMonth.getOrDefault(customerId, Map.of()).forEach((period, monthlyPoints) ->
+                    monthlyPointsRepo.addPoints(customerId, YearMonth.of(period / 100, period % 100),
+                            monthlyPoints));
+        });
+        customerVersions.bumpAll(pointsByCustomer.keySet());
+        log.debug("Applied points accruals of {} orders for {} customers", earned.size(), pointsByCustomer.size());
+    }
+
+    /**
+     * Applies the accruals already queued before shutting down. Accruals not
+     * applied in time stay pending and are replayed on the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (consumer != null) {
+            consumer.join(Duration.ofSeconds(10).toMillis());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Write-behind accumulator for loyalty points. When enabled, orders add their points to striped in-memory counters
+ * instead of updating the customer row, and a scheduled flush applies the coalesced deltas to the customers and the
+ * monthly rollup in one transaction. Pending points are lost if the process dies before a flush.
+ */
+@Component
+@Slf4j
+public class PointsAccumulator {
+
+    private static final Duration FLUSH_WAIT = Duration.ofMillis(1);
+
+    private final CustomerRepository customerRepo;
+
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private final CustomerVersions customerVersions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    /**
+     * Entries are never removed, so a counter obtained by an order can never be dropped before it is drained.
+     */
+    private final ConcurrentHashMap<Long, LongAdder> pendingPoints = new ConcurrentHashMap<>();
+
+    /**
+     * Monthly deltas only feed the rollup and are removed atomically when drained.
+     */
+    private final ConcurrentHashMap<MonthKey, Long> pendingMonthlyPoints = new ConcurrentHashMap<>();
+
+    /**
+     * Held exclusively from draining the counters until the flush commits, so that readers never see a delta both
+     * pending and persisted, or neither.
+     */
+    private final StampedLock flushLock = new StampedLock();
+
+    public PointsAccumulator(CustomerRepository customerRepo, CustomerMonthlyPointsRepository monthlyPointsRepo,
+            CustomerVersions customerVersions, PlatformTransactionManager transactionManager,
+            @Value("${loyalty.service.write_behind.enabled}") boolean enabled) {
+        this.customerRepo = customerRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.customerVersions = customerVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds points of an order. Inside a transaction the points only become pending once it commits.
+     *
+     * @param customerId
+     * @param yearMonth month of the order, or null when it has no order date
+     * @param points
+     */
+    public void add(Long customerId, YearMonth yearMonth, int points) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addPending(customerId, yearMonth, points);
+                }
+            });
+        } else {
+            addPending(customerId, yearMonth, points);
+        }
+    }
+
+    private void addPending(Long customerId, YearMonth yearMonth, long points) {
+        pendingPoints.computeIfAbsent(customerId, id -> new LongAdder()).add(points);
+        if (yearMonth != null) {
+            pendingMonthlyPoints.merge(new MonthKey(customerId, CustomerMonthlyPoints.periodOf(yearMonth)), points,
+                    Long::sum);
+        }
+    }
+
+    /**
+     * Points of a customer not yet flushed to the database.
+     *
+     * @param customerId
+     * @return pending points
+     */
+    public int getPendingPoints(Long customerId) {
+        LongAdder points = pendingPoints.get(customerId);
+        return points == null ? 0 : Math.toIntExact(points.sum());
+    }
+
+    /**
+     * Reads the persisted balance and adds the pending points, retrying if a flush
+     * moved points from pending to persisted in between.
+     *
+     * @param customerId
+     * @param persistedPoints reads the balance from the database
+     * @return loyalty points
+     */
+    public int getLoyaltyPoints(Long customerId, IntSupplier persistedPoints) {
+        long stamp = flushLock.tryOptimisticRead();
+        if (stamp != 0) {
+            int loyaltyPoints = persistedPoints.getAsInt() + getPendingPoints(customerId);
+            if (flushLock.validate(stamp)) {
+                return loyaltyPoints;
+            }
+        }
+        stamp = flushLock.readLock();
+        try {
+            return persistedPoints.getAsInt() + getPendingPoints(customerId);
+        } finally {
+            flushLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #getLoyaltyPoints(Long, IntSupplier)}. While a
+     * flush holds the lock the read is repeated after a short delay instead of
+     * blocking the subscriber.
+     *
+     * @param customerId
+     * @param persistedPoints reads the balance from the database, must not complete empty
+     * @return loyalty points
+     */
+    public Mono<Integer> getLoyaltyPoints(Long customerId, Mono<Integer> persistedPoints) {
+        return Mono.defer(() -> {
+            long stamp = flushLock.tryOptimisticRead();
+            if (stamp == 0) {
+                return Mono.<Integer>empty();
+            }
+            return persistedPoints.map(points -> points + getPendingPoints(customerId))
+                    .filter(points -> flushLock.validate(stamp));
+        }).repeatWhenEmpty(repeats -> repeats.delayElements(FLUSH_WAIT));
+    }
+
+    /**
+     * Applies the pending points to the database, one balance update per customer
+     * and one rollup update per customer and month.
+     */
+    @Scheduled(fixedDelayString = "${loyalty.service.write_behind.flush_interval_ms}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        long stamp = flushLock.writeLock();
+        try {
+            // Sorted by customer id so that flushes lock customer rows in the same order as batch ingestion
+            Map<Long, Long> points = new TreeMap<>();
+            pendingPoints.forEach((customerId, pending) -> {
+                long delta = pending.sumThenReset();
+                if (delta != 0) {
+                    points.put(customerId, delta);
+                }
+            });
+            Map<Long, Map<Integer, Long>> monthlyPoints = new HashMap<>();
+            for (MonthKey key : pendingMonthlyPoints.keySet()) {
+                Long delta = pendingMonthlyPoints.remove(key);
+                if (delta != null) {
+                    monthlyPoints.computeIfAbsent(key.customerId(), id -> new HashMap<>()).put(key.period(), delta);
+                    points.putIfAbsent(key.customerId(), 0L);
+                }
+            }
+            if (points.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(points, monthlyPoints));
+            } catch (RuntimeException ex) {
+                restore(points, monthlyPoints);
+                log.error("Flushing pending loyalty points failed, retrying on next flush : ", ex);
+                return;
+            }
+            // The monthly rollup of the summaries changed
+            customerVersions.bumpAll(points.keySet());
+            log.debug("Flushed pending loyalty points of {} customers", points.size());
+        } finally {
+            flushLock.unlockWrite(stamp);
+        }
+    }
+
+    private void apply(Map<Long, Long> points, Map<Long, Map<Integer, Long>> monthlyPoints) {
+        points.forEach((customerId, delta) -> {
+            // Locks the customer row first, which keeps the rollup upserts of the customer free of races
+            customerRepo.addLoyaltyPoints(customerId, Math.toIntExact(delta));
+            monthlyPoints.getOrDefault(customerId, Map.of()).forEach((period, monthlyDelta) -> monthlyPointsRepo
+                    .addPoints(customerId, YearMonth.of(period / 100, period % 100), monthlyDelta));
+        });
+    }
+
+    private void restore(Map<Long, Long> points, Map<Long, Map<Integer, Long>> monthlyPoints) {
+        points.forEach((customerId, delta) -> pendingPoints.computeIfAbsent(customerId, id -> new LongAdder())
+                .add(delta));
+        monthlyPoints.forEach((customerId, deltas) -> deltas.forEach((period, delta) -> pendingMonthlyPoints
+                .merge(new MonthKey(customerId, period), delta, Long::sum)));
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        if (enabled) {
+            log.info("Flushing pending loyalty points before shutdown");
+            flush();
+        }
+    }
+
+    private record MonthKey(Long customerId, int period) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.ExpiryCheckpoint;
+import com.retail.loyaltyservice.model.ExpirySweepSummary;
+import com.retail.loyaltyservice.model.PointsExpiry;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.ExpiryCheckpointRepository;
+import com.retail.loyaltyservice.repository.PointsExpiryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Expires points loyalty.service.expiry.months after the month of their order, as counted in the monthly rollup. A
+ * sweep splits the customer ids into one contiguous range per worker thread. Each worker walks its range in batches of
+ * loyalty.service.expiry.batch_size customers, each batch committed on its own together with the worker's checkpoint,
+ * so no transaction outlives a batch and only the rows of customers with points earned before the cutoff month are
+ * locked. An interrupted sweep resumes from the checkpoints, a new month starts a new sweep.
+ * <p>
+ * Points are settled oldest first: all points earned before the cutoff month are settled, and what is left of them in
+ * the balance is expired. Redeemed points count as settled. Opening balances and adjustments are never expired.
+ */
+@Component
+@Slf4j
+public class PointsExpiryJob {
+
+    private final CustomerRepository customerRepo;
+
+    private final CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private final PointsExpiryRepository expiryRepo;
+
+    private final ExpiryCheckpointRepository checkpointRepo;
+
+    private final PointsLedgerService pointsLedger;
+
+    private final CustomerVersions customerVersions;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean enabled;
+
+    private final int months;
+
+    private final int workers;
+
+    private final int batchSize;
+
+    public PointsExpiryJob(CustomerRepository customerRepo, CustomerMonthlyPointsRepository monthlyPointsRepo,
+            PointsExpiryRepository expiryRepo, ExpiryCheckpointRepository checkpointRepo,
+            PointsLedgerService pointsLedger, CustomerVersions customerVersions,
+            PlatformTransactionManager transactionManager,
+            @Value("${loyalty.service.expiry.enabled}") boolean enabled,
+            @Value("${loyalty.service.expiry.months}") int months,
+            @Value("${loyalty.service.expiry.workers}") int workers,
+            @Value("${loyalty.service.expiry.batch_size}") int batchSize) {
+        this.customerRepo = customerRepo;
+        this.monthlyPointsRepo = monthlyPointsRepo;
+        this.expiryRepo = expiryRepo;
+        this.checkpointRepo = checkpointRepo;
+        this.pointsLedger = pointsLedger;
+        this.customerVersions = customerVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.months = months;
+        this.workers = workers;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Runs or resumes the sweep of the current month.
+     */
+    @Scheduled(fixedDelayString = "${loyalty.service.expiry.interval_ms}")
+    public void expire() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sweep(YearMonth.now());
+        } catch (RuntimeException ex) {
+            log.error("Points expiry sweep failed, resuming on next run : ", ex);
+        }
+    }
+
+    /**
+     * Expires the points of months more than loyalty.service.expiry.months before
+     * the given month. Resumes the sweep of that month if one was interrupted, and
+     * does nothing if it has completed.
+     *
+     * @param currentMonth
+     * @return ExpirySweepSummary of this call
+     */
+    public ExpirySweepSummary sweep(YearMonth currentMonth) {
+        int cutoffPeriod = CustomerMonthlyPoints.periodOf(currentMonth.minusMonths(months));
+        lock.lock();
+        try {
+            List<ExpiryCheckpoint> pending = checkpoints(cutoffPeriod).stream()
+                    .filter(checkpoint -> !checkpoint.isCompleted())
+                    .toList();
+            long[] totals = new long[2];
+            if (!pending.isEmpty()) {
+                ExecutorService executor = Executors.newFixedThreadPool(pending.size());
+                try {
+                    List<Future<long[]>> results = pending.stream()
+                            .map(checkpoint -> executor.submit(() -> sweep(checkpoint)))
+                            .toList();
+                    RuntimeException failure = null;
+                    for (Future<long[]> result : results) {
+                        try {
+                            totals[0] += result.get()[0];
+                            totals[1] += result.get()[1];
+                        } catch (ExecutionException ex) {
+                            failure = new IllegalStateException("Points expiry worker failed", ex.getCause());
+                        }
+                    }
+                    if (failure != null) {
+                        throw failure;
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for points expiry workers", ex);
+                } finally {
+                    executor.shutdownNow();
+                }
+                log.info("Expired {} points of {} customers earned before period {}", totals[1], totals[0],
+                        cutoffPeriod);
+            }
+            return ExpirySweepSummary.builder()
+                    .cutoffPeriod(cutoffPeriod)
+                    .customersExpired(totals[0])
+                    .pointsExpired(totals[1])
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checkpoints of the sweep of a cutoff month, starting the sweep if the
+     * checkpoints are of another month or another number of workers.
+     */
+    private List<ExpiryCheckpoint> checkpoints(int cutoffPeriod) {
+        List<ExpiryCheckpoint> checkpoints = checkpointRepo.findAllByOrderByWorker();
+        if (checkpoints.size() == workers
+                && checkpoints.stream().allMatch(checkpoint -> checkpoint.getCutoffPeriod() == cutoffPeriod)) {
+            return checkpoints;
+        }
+        long rangeSize = Math.max(1, (customerRepo.findMaxId() + workers - 1) / workers);
+        checkpoints = new ArrayList<>(workers);
+        for (int worker = 0; worker < workers; worker++) {
+            long rangeStart = worker * rangeSize;
+            checkpoints.add(ExpiryCheckpoint.builder()
+                    .worker(worker)
+                    .cutoffPeriod(cutoffPeriod)
+                    .rangeStart(rangeStart)
+                    // The last range is open, so customers created during the sweep are included
+                    .rangeEnd(worker == workers - 1 ? Long.MAX_VALUE : rangeStart + rangeSize)
+                    .lastCustomerId(rangeStart)
+                    .completed(false)
+                    .build());
+        }
+        log.info("Starting points expiry sweep of {} workers for points earned before period {}", workers,
+                cutoffPeriod);
+        List<ExpiryCheckpoint> started = checkpoints;
+        return transactionTemplate.execute(status -> {
+            checkpointRepo.deleteAllInBatch();
+            return checkpointRepo.saveAll(started);
+        });
+    }
+
+    /**
+     * Walks the range of one worker from its checkpoint, one transaction per batch.
+     *
+     * @return customers whose points expired and points expired
+     */
+    private long[] sweep(ExpiryCheckpoint checkpoint) {
+        long[] totals = new long[2];
+        while (!checkpoint.isCompleted()) {
+            long[] batch = transactionTemplate.execute(status -> expireBatch(checkpoint));
+            totals[0] += batch[0];
+            totals[1] += batch[1];
+        }
+        return totals;
+    }
+
+    private long[] expireBatch(ExpiryCheckpoint checkpoint) {
+        List<Long> customerIds = customerRepo.findIdsInRange(checkpoint.getLastCustomerId(), checkpoint.getRangeEnd(),
+                PageRequest.of(0, batchSize));
+        long[] totals = new long[2];
+        if (customerIds.isEmpty()) {
+            checkpoint.setCompleted(true);
+            checkpointRepo.save(checkpoint);
+            return totals;
+        }
+        long fromId = customerIds.get(0);
+        long toId = customerIds.get(customerIds.size() - 1);
+        // Sorted by customer id so that the rows are locked in the same order as batch ingestion
+        Map<Long, Long> earned = new TreeMap<>();
+        monthlyPointsRepo.findPeriodPointsByCustomerIdBetween(fromId, toId, 0, checkpoint.getCutoffPeriod() - 1)
+                .forEach(periodPoints -> earned.merge(periodPoints.customerId(), periodPoints.points(), Long::sum));
+        if (!earned.isEmpty()) {
+            // Locked before the settled points are read, as redemptions settle points under the same lock
+            Map<Long, Integer> balances = customerRepo.lockAllById(earned.keySet()).stream()
+                    .collect(Collectors.toMap(Customer::getId, Customer::getLoyaltyPoints));
+            Map<Long, PointsExpiry> expiries = expiryRepo.findAllById(earned.keySet()).stream()
+                    .collect(Collectors.toMap(PointsExpiry::getCustomerId, Function.identity()));
+            List<Long> expired = new ArrayList<>();
+            earned.forEach((customerId, points) -> {
+                PointsExpiry expiry = expiries.getOrDefault(customerId, PointsExpiry.builder()
+                        .customerId(customerId)
+                        .build());
+                long unsettled = points - expiry.getSettledPoints();
+                if (unsettled <= 0) {
+                    return;
+                }
+                // Points already gone from the balance are settled without expiring anything
+                int expiredPoints = (int) Math.min(unsettled, Math.max(0, balances.getOrDefault(customerId, 0)));
+                if (expiredPoints > 0) {
+                    pointsLedger.expire(customerId, expiredPoints);
+                    expired.add(customerId);
+                    totals[0]++;
+                    totals[1] += expiredPoints;
+                }
+                expiry.setSettledPoints(expiry.getSettledPoints() + unsettled);
+                expiryRepo.save(expiry);
+            });
+            customerVersions.bumpAll(expired);
+        }
+        checkpoint.setLastCustomerId(toId);
+        checkpointRepo.save(checkpoint);
+        return totals;
+    }
+}
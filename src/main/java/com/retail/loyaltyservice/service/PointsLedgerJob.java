@@ -0,0 +1,178 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.LedgerRebuildSummary;
+import com.retail.loyaltyservice.model.LedgerTotal;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PointsSnapshotRepository;
+import com.retail.loyaltyservice.repository.PointsTransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Snapshots and rebuilds balances from the points ledger. Both only read ledger entries created more than
+ * loyalty.service.ledger.settle_ms ago, so that no entry with a lower id can still be uncommitted, and never run at
+ * the same time.
+ */
+@Component
+@Slf4j
+public class PointsLedgerJob {
+
+    private final PointsTransactionRepository transactionRepo;
+
+    private final PointsSnapshotRepository snapshotRepo;
+
+    private final CustomerRepository customerRepo;
+
+    private final PointsAccumulator pointsAccumulator;
+
+    private final CustomerVersions customerVersions;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate batchTransactionTemplate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${loyalty.service.ledger.settle_ms}")
+    private long settleMillis;
+
+    @Value("${loyalty.service.ledger.batch_size}")
+    private int batchSize;
+
+    /**
+     * Ledger entries up to this id are folded into the snapshots, read from the database on first use. Entries up to
+     * it were settled when it was taken.
+     */
+    private volatile Long snapshotUpToId;
+
+    public PointsLedgerJob(PointsTransactionRepository transactionRepo, PointsSnapshotRepository snapshotRepo,
+            CustomerRepository customerRepo, PointsAccumulator pointsAccumulator, CustomerVersions customerVersions,
+            EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.transactionRepo = transactionRepo;
+        this.snapshotRepo = snapshotRepo;
+        this.customerRepo = customerRepo;
+        this.pointsAccumulator = pointsAccumulator;
+        this.customerVersions = customerVersions;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Folds the ledger entries since the previous snapshot into the snapshots of their customers, in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${loyalty.service.ledger.snapshot_interval_ms}")
+    public void snapshot() {
+        lock.lock();
+        try {
+            snapshotUpToId = transactionTemplate.execute(status -> {
+                long afterId = snapshotUpToId();
+                long upToId = transactionRepo.findLastIdCreatedBefore(afterId, settledBefore());
+                if (upToId == afterId) {
+                    return afterId;
+                }
+                Instant takenAt = Instant.now();
+                try (Stream<LedgerTotal> totals = transactionRepo.streamTotals(afterId, upToId)) {
+                    forEachBatch(totals, batch -> batch.forEach(total -> snapshotRepo
+                            .addPoints(total.getCustomerId(), total.getPoints(), upToId, takenAt)));
+                }
+                log.debug("Folded ledger entries {} to {} into snapshots", afterId + 1, upToId);
+                return upToId;
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes the balances and snapshots of all customers from the ledger in one streaming pass. Each batch of
+     * customers is committed on its own, with the customer rows locked so that balance changes made meanwhile are
+     * kept. Not available in write-behind mode, where the balances lag the ledger by the pending points.
+     *
+     * @return LedgerRebuildSummary
+     */
+    public LedgerRebuildSummary rebuild() {
+        if (pointsAccumulator.isEnabled()) {
+            throw new IllegalStateException("Balances cannot be rebuilt in write-behind mode");
+        }
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> {
+                long upToId = transactionRepo.findLastIdCreatedBefore(snapshotUpToId(), settledBefore());
+                Instant takenAt = Instant.now();
+                long[] customers = new long[1];
+                try (Stream<LedgerTotal> totals = transactionRepo.streamTotals(0, upToId)) {
+                    forEachBatch(totals, batch -> {
+                        batchTransactionTemplate.executeWithoutResult(batchStatus -> rebuild(batch, upToId, takenAt));
+                        customers[0] += batch.size();
+                    });
+                }
+                log.info("Rebuilt balances of {} customers from ledger entries up to {}", customers[0], upToId);
+                snapshotUpToId = upToId;
+                return LedgerRebuildSummary.builder()
+                        .customersRebuilt(customers[0])
+                        .lastTransactionId(upToId)
+                        .build();
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void rebuild(List<LedgerTotal> batch, long upToId, Instant takenAt) {
+        List<Long> customerIds = batch.stream().map(LedgerTotal::getCustomerId).toList();
+        customerRepo.lockAllById(customerIds);
+        // Entries after the snapshot are committed or wait for the locks, as their transaction changes the balance
+        Map<Long, Long> tails = transactionRepo.sumPointsAfter(customerIds, upToId).stream()
+                .collect(Collectors.toMap(LedgerTotal::getCustomerId, LedgerTotal::getPoints));
+        for (LedgerTotal total : batch) {
+            long balance = total.getPoints() + tails.getOrDefault(total.getCustomerId(), 0L);
+            customerRepo.setLoyaltyPoints(total.getCustomerId(), Math.toIntExact(balance));
+            snapshotRepo.putBalance(total.getCustomerId(), total.getPoints(), upToId, takenAt);
+        }
+        customerVersions.bumpAll(customerIds);
+    }
+
+    private long snapshotUpToId() {
+        return snapshotUpToId == null ? snapshotRepo.findLastTransactionId() : snapshotUpToId;
+    }
+
+    private void forEachBatch(Stream<LedgerTotal> totals, Consumer<List<LedgerTotal>> action) {
+        Iterator<LedgerTotal> iterator = totals.iterator();
+        List<LedgerTotal> batch = new ArrayList<>(batchSize);
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == batchSize || !iterator.hasNext()) {
+                action.accept(batch);
+                // Keeps the persistence context from growing with every snapshot written
+                entityManager.flush();
+                entityManager.clear();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    private Instant settledBefore() {
+        return Instant.now().minus(Duration.ofMillis(settleMillis));
+    }
+}
@@ -0,0 +1,148 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PointsSnapshot;
+import com.retail.loyaltyservice.model.PointsTransaction;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PointsSnapshotRepository;
+import com.retail.loyaltyservice.repository.PointsTransactionRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Points ledger service implementation. Every change of a balance is appended to the ledger in the transaction that
+ * makes it, so Customer.loyaltyPoints always equals the sum of the ledger entries of the customer, apart from pending
+ * points in write-behind mode.
+ */
+@Service
+@Timed("loyalty.service")
+@Transactional
+public class PointsLedgerService {
+
+    private final PointsTransactionRepository transactionRepo;
+
+    private final PointsSnapshotRepository snapshotRepo;
+
+    private final CustomerRepository customerRepo;
+
+    public PointsLedgerService(PointsTransactionRepository transactionRepo, PointsSnapshotRepository snapshotRepo,
+            CustomerRepository customerRepo) {
+        this.transactionRepo = transactionRepo;
+        this.snapshotRepo = snapshotRepo;
+        this.customerRepo = customerRepo;
+    }
+
+    /**
+     * Appends the points earned with an order. The caller updates the balance.
+     *
+     * @param order saved order with its customer
+     */
+    public void earn(Order order) {
+        transactionRepo.save(earned(order, Instant.now()));
+    }
+
+    /**
+     * Appends the points earned with a batch of orders, as JDBC batched inserts. The caller updates the balances.
+     *
+     * @param orders saved orders with their customers
+     */
+    public void earnAll(List<Order> orders) {
+        Instant now = Instant.now();
+        transactionRepo.saveAll(orders.stream()
+                .map(order -> earned(order, now))
+                .toList());
+    }
+
+    private static PointsTransaction earned(Order order, Instant createdAt) {
+        return PointsTransaction.builder()
+                .customerId(order.getCustomer().getId())
+                .type(PointsTransaction.Type.EARN)
+                .points(order.getLoyaltyPoints())
+                .orderId(order.getId())
+                .createdAt(createdAt)
+                .build();
+    }
+
+    /**
+     * Appends the balance a customer was created with.
+     *
+     * @param customer saved customer
+     */
+    public void openBalance(Customer customer) {
+        if (customer.getLoyaltyPoints() != 0) {
+            append(customer.getId(), PointsTransaction.Type.ADJUST, customer.getLoyaltyPoints());
+        }
+    }
+
+    /**
+     * Changes the balance of a customer by the given points and appends the adjustment.
+     *
+     * @param customerId
+     * @param points     signed change of the balance
+     */
+    public void adjust(Long customerId, int points) {
+        if (customerRepo.addLoyaltyPoints(customerId, points) == 0) {
+            throw new EntityNotFoundException("Customer not found for given Id: " + customerId);
+        }
+        append(customerId, PointsTransaction.Type.ADJUST, points);
+    }
+
+    /**
+     * Takes expired points off the balance of a customer and appends the expiry.
+     * The caller holds the lock of the customer row and checks the balance.
+     *
+     * @param customerId
+     * @param points     expired points, positive
+     */
+    public void expire(Long customerId, int points) {
+        customerRepo.addLoyaltyPoints(customerId, -points);
+        append(customerId, PointsTransaction.Type.EXPIRE, -points);
+    }
+
+    /**
+     * Takes redeemed points off the balance of a customer, only if the balance
+     * covers them, and appends the redemption. The row stays locked until commit.
+     *
+     * @param customerId
+     * @param points     redeemed points, positive
+     * @throws IllegalArgumentException when the balance is lower than the points
+     */
+    public void redeem(Long customerId, int points) {
+        if (customerRepo.redeemLoyaltyPoints(customerId, points) == 0) {
+            if (!customerRepo.existsById(customerId)) {
+                throw new EntityNotFoundException("Customer not found for given Id: " + customerId);
+            }
+            throw new IllegalArgumentException("Insufficient loyalty points to redeem " + points);
+        }
+        append(customerId, PointsTransaction.Type.REDEEM, -points);
+    }
+
+    private void append(Long customerId, PointsTransaction.Type type, int points) {
+        transactionRepo.save(PointsTransaction.builder()
+                .customerId(customerId)
+                .type(type)
+                .points(points)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Balance of a customer derived from the ledger, the latest snapshot plus the entries after it.
+     *
+     * @param customerId
+     * @return balance
+     */
+    public long getBalance(Long customerId) {
+        Optional<PointsSnapshot> snapshot = snapshotRepo.findById(customerId);
+        long lastTransactionId = snapshot.map(PointsSnapshot::getLastTransactionId).orElse(0L);
+        return snapshot.map(PointsSnapshot::getBalance).orElse(0L)
+                + transactionRepo.sumPointsAfter(customerId, lastTransactionId);
+    }
+}
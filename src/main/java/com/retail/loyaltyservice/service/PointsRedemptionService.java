@@ -0,0 +1,126 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.PointsExpiry;
+import com.retail.loyaltyservice.model.PointsRedemption;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PointsExpiryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Points redemption service implementation. The balance is checked and taken off
+ * in one conditional update, so it never goes below zero, whatever orders and
+ * redemptions of the customer run at the same time. The update locks the customer
+ * row, which every order of a hot customer also takes. A redemption that cannot
+ * get the lock in time is retried in a new transaction, up to
+ * loyalty.service.redemption.max_attempts attempts, after a random backoff
+ * doubling from loyalty.service.redemption.backoff_ms, so that retries of
+ * clients that failed together do not collide again.
+ * <p>
+ * Redeemed points are settled for expiry oldest first, so they are never expired
+ * again. Points pending in write-behind or asynchronous accrual mode cannot be
+ * redeemed before they are added to the balance.
+ */
+@Service
+@Slf4j
+public class PointsRedemptionService {
+
+    private final PointsLedgerService pointsLedger;
+
+    private final CustomerRepository customerRepo;
+
+    private final PointsExpiryRepository expiryRepo;
+
+    private final CustomerVersions customerVersions;
+
+    private final LoyaltyMetrics loyaltyMetrics;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxAttempts;
+
+    private final long backoffMillis;
+
+    public PointsRedemptionService(PointsLedgerService pointsLedger, CustomerRepository customerRepo,
+            PointsExpiryRepository expiryRepo, CustomerVersions customerVersions, LoyaltyMetrics loyaltyMetrics,
+            PlatformTransactionManager transactionManager,
+            @Value("${loyalty.service.redemption.max_attempts}") int maxAttempts,
+            @Value("${loyalty.service.redemption.backoff_ms}") long backoffMillis) {
+        this.pointsLedger = pointsLedger;
+        this.customerRepo = customerRepo;
+        this.expiryRepo = expiryRepo;
+        this.customerVersions = customerVersions;
+        this.loyaltyMetrics = loyaltyMetrics;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+    }
+
+    /**
+     * Redeems loyalty points of a customer.
+     *
+     * @param customerId
+     * @param points     points to redeem, positive
+     * @return PointsRedemption with the balance left
+     * @throws IllegalArgumentException when the points are not positive or exceed
+     *                                  the balance
+     * @throws PessimisticLockingFailureException when the customer row could not
+     *                                  be locked in any attempt
+     */
+    public PointsRedemption redeem(Long customerId, int points) {
+        if (points <= 0) {
+            throw new IllegalArgumentException("Points to redeem must be positive: " + points);
+        }
+        for (int attempt = 1;; attempt++) {
+            try {
+                PointsRedemption redemption = transactionTemplate.execute(status -> redeemOnce(customerId, points));
+                loyaltyMetrics.pointsRedeemed(points);
+                return redemption;
+            } catch (PessimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw ex;
+                }
+                loyaltyMetrics.redemptionRetried();
+                log.debug("Redemption of customer {} failed to lock in attempt {}, retrying", customerId, attempt);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private PointsRedemption redeemOnce(Long customerId, int points) {
+        pointsLedger.redeem(customerId, points);
+        // The customer row is locked by the redemption, as by the expiry sweep before it reads the settled points
+        PointsExpiry expiry = expiryRepo.findById(customerId).orElseGet(() -> PointsExpiry.builder()
+                .customerId(customerId)
+                .build());
+        expiry.setSettledPoints(expiry.getSettledPoints() + points);
+        expiryRepo.save(expiry);
+        customerVersions.bump(customerId);
+        return PointsRedemption.builder()
+                .customerId(customerId)
+                .points(points)
+                .loyaltyPoints(customerRepo.findCurrentLoyaltyPointsById(customerId).orElseThrow())
+                .build();
+    }
+
+    /**
+     * Sleeps a random time up to the backoff of the attempt, full jitter.
+     */
+    private void backOff(int attempt) {
+        long maxBackoff = backoffMillis << Math.min(attempt - 1, 10);
+        try {
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(maxBackoff + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a redemption", ex);
+        }
+    }
+}
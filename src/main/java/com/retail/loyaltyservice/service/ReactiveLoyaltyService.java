@@ -0,0 +1,112 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.config.CacheConfig;
+import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.repository.ReactiveLoyaltyRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Non-blocking counterpart of {@link LoyaltyService} for the reactive loyalty API.
+ * Gives the same answers: balances go through the same cache and include pending
+ * write-behind points, summaries are built from the same rollup and order
+ * aggregates.
+ */
+@Service
+@Slf4j
+public class ReactiveLoyaltyService {
+
+    private final ReactiveLoyaltyRepository reactiveLoyaltyRepo;
+
+    private final PointsAccumulator pointsAccumulator;
+
+    private final Cache loyaltyPointsCache;
+
+    public ReactiveLoyaltyService(ReactiveLoyaltyRepository reactiveLoyaltyRepo, PointsAccumulator pointsAccumulator,
+            CacheManager cacheManager) {
+        this.reactiveLoyaltyRepo = reactiveLoyaltyRepo;
+        this.pointsAccumulator = pointsAccumulator;
+        this.loyaltyPointsCache = cacheManager.getCache(CacheConfig.LOYALTY_POINTS_CACHE);
+    }
+
+    /**
+     * Method to get loyalty points of given customer. In write-behind mode the
+     * points not yet flushed are included.
+     *
+     * @param customerId
+     * @return loyalty points
+     */
+    public Mono<Integer> getLoyaltyPoints(Long customerId) {
+        Mono<Integer> persistedPoints = getPersistedLoyaltyPoints(customerId);
+        return (pointsAccumulator.isEnabled()
+                ? pointsAccumulator.getLoyaltyPoints(customerId, persistedPoints)
+                : persistedPoints)
+                .doOnNext(totalLoyaltyPoints -> log
+                        .debug("Total Loyalty points available for customer is " + totalLoyaltyPoints));
+    }
+
+    private Mono<Integer> getPersistedLoyaltyPoints(Long customerId) {
+        return Mono.defer(() -> {
+            Integer cached = loyaltyPointsCache.get(customerId, Integer.class);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return reactiveLoyaltyRepo.findLoyaltyPointsById(customerId)
+                    .doOnNext(loyaltyPoints -> loyaltyPointsCache.put(customerId, loyaltyPoints))
+                    .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(
+                            "Customer not found for given Id: " + customerId)));
+        });
+    }
+
+    /**
+     * Method to get a summary of loyalty points of given customer for given date
+     * range, see {@link LoyaltyService#getLoyaltySummary(Long, LocalDate, LocalDate)}.
+     *
+     * @param customerId
+     * @param startDate
+     * @param endDate
+     * @return LoyaltySummary
+     */
+    public Mono<LoyaltySummary> getLoyaltySummary(Long customerId, LocalDate startDate, LocalDate endDate) {
+        return reactiveLoyaltyRepo.findCustomerById(customerId)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(
+                        "Customer not found for given Id: " + customerId)))
+                .flatMap(customer -> {
+                    int totalPoints = customer.getLoyaltyPoints()
+                            + (pointsAccumulator.isEnabled() ? pointsAccumulator.getPendingPoints(customerId) : 0);
+                    if (totalPoints == 0) {
+                        return Mono.error(new EntityNotFoundException("No Loyalty points awarded for customer yet"));
+                    }
+                    return getMonthlyLoyaltyPoints(customerId, startDate, endDate)
+                            .collectList()
+                            .map(monthlyLoyaltyPoints -> LoyaltySummary.builder()
+                                    .customer(customer)
+                                    .monthlyLoyaltyPoints(monthlyLoyaltyPoints)
+                                    .totalPoints(totalPoints)
+                                    .build());
+                });
+    }
+
+    private Flux<MonthlyLoyaltyPoints> getMonthlyLoyaltyPoints(Long customerId, LocalDate startDate,
+            LocalDate endDate) {
+        return Flux.fromIterable(SummaryPeriod.split(startDate, endDate))
+                .concatMap(period -> period.wholeMonths()
+                        ? reactiveLoyaltyRepo.findMonthlyPoints(customerId, period.startPeriod(), period.endPeriod())
+                                .map(rollup -> LoyaltyService.toMonthlyLoyaltyPoints(rollup.toYearMonth(),
+                                        rollup.getPoints()))
+                        : reactiveLoyaltyRepo.aggregateMonthlyLoyaltyPoints(customerId, period.startDate(),
+                                period.endDate())
+                                .map(aggregate -> LoyaltyService.toMonthlyLoyaltyPoints(
+                                        YearMonth.of(aggregate.getYear(), aggregate.getMonth()),
+                                        aggregate.getPoints())));
+    }
+}
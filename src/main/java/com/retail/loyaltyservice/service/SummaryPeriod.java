@@ -0,0 +1,59 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Part of a summary date range. Whole months are read from the monthly rollup, the partial months at either end of
+ * the range are aggregated from the orders.
+ *
+ * @param startDate
+ * @param endDate
+ * @param wholeMonths true when the period starts and ends on month boundaries
+ */
+record SummaryPeriod(LocalDate startDate, LocalDate endDate, boolean wholeMonths) {
+
+    /**
+     * Splits a date range into at most a leading partial month, a run of whole
+     * months and a trailing partial month, in chronological order.
+     *
+     * @param startDate
+     * @param endDate
+     * @return periods, empty when the range is empty
+     */
+    static List<SummaryPeriod> split(LocalDate startDate, LocalDate endDate) {
+        List<SummaryPeriod> periods = new ArrayList<>(3);
+        if (startDate.isAfter(endDate)) {
+            return periods;
+        }
+        YearMonth firstMonth = YearMonth.from(startDate);
+        YearMonth lastMonth = YearMonth.from(endDate);
+        YearMonth firstFullMonth = startDate.getDayOfMonth() == 1 ? firstMonth : firstMonth.plusMonths(1);
+        YearMonth lastFullMonth = endDate.equals(lastMonth.atEndOfMonth()) ? lastMonth : lastMonth.minusMonths(1);
+
+        if (firstFullMonth.isAfter(lastFullMonth)) {
+            periods.add(new SummaryPeriod(startDate, endDate, false));
+            return periods;
+        }
+        if (!firstMonth.equals(firstFullMonth)) {
+            periods.add(new SummaryPeriod(startDate, firstMonth.atEndOfMonth(), false));
+        }
+        periods.add(new SummaryPeriod(firstFullMonth.atDay(1), lastFullMonth.atEndOfMonth(), true));
+        if (!lastMonth.equals(lastFullMonth)) {
+            periods.add(new SummaryPeriod(lastMonth.atDay(1), endDate, false));
+        }
+        return periods;
+    }
+
+    int startPeriod() {
+        return CustomerMonthlyPoints.periodOf(YearMonth.from(startDate));
+    }
+
+    int endPeriod() {
+        return CustomerMonthlyPoints.periodOf(YearMonth.from(endDate));
+    }
+}
@@ -0,0 +1,111 @@
+package com.retail.loyaltyservice.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter of strings with a fixed number of bits. A string never
+ * added may be reported as contained, at about the false positive rate the filter
+ * was sized for while it holds no more than the expected number of strings, and at
+ * a growing rate beyond that. A string added is always reported as contained.
+ * <p>
+ * Bit positions come from two 64-bit hashes of the string combined as
+ * {@code h1 + i * h2}, so a lookup hashes the string once whatever the number of
+ * hash functions.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final long bits;
+
+    private final int hashFunctions;
+
+    private BloomFilter(long bits, int hashFunctions) {
+        this.words = new AtomicLongArray((int) ((bits + Long.SIZE - 1) / Long.SIZE));
+        this.bits = (long) words.length() * Long.SIZE;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Creates a filter sized for the expected number of strings at the given false
+     * positive rate.
+     *
+     * @param expectedInsertions
+     * @param falsePositiveRate  between 0 and 1, both excluded
+     * @return BloomFilter
+     * @throws IllegalArgumentException when a parameter is out of range or the
+     *                                  filter would not fit in an array
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashFunctions = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        if (bits > (long) Integer.MAX_VALUE * Long.SIZE - Long.SIZE) {
+            throw new IllegalArgumentException("Bloom filter too large for " + expectedInsertions + " insertions");
+        }
+        return new BloomFilter(bits, hashFunctions);
+    }
+
+    public long getBits() {
+        return bits;
+    }
+
+    public int getHashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * Adds a string.
+     *
+     * @param value
+     */
+    public void put(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * @param value
+     * @return false when the string was never added, true when it may have been
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value, 0x9E3779B97F4A7C15L);
+        long h2 = hash(value, 0xC2B2AE3D27D4EB4FL) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit hash of the characters of a string, multiplied in per character and
+     * finished with the SplitMix64 mixer so that every input bit reaches every
+     * output bit.
+     */
+    private static long hash(String value, long seed) {
+        long h = seed ^ value.length();
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * 0x100000001B3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
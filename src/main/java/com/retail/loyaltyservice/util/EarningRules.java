@@ -0,0 +1,307 @@
+package com.retail.loyaltyservice.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Earning rules compiled into an immutable evaluator. Tiers are kept as a sorted array of thresholds in cents with the
+ * points of every tier below a threshold precomputed, so the points of an amount in cents are a count of the
+ * thresholds below it, one lookup and one multiplication, without a branch per tier. Category multipliers and
+ * promotions multiply the tier points. Overlapping promotions are compiled into sorted, disjoint date ranges with the
+ * product of the promotions in force, looked up by binary search.
+ * <p>
+ * Rules are defined as in loyalty.service.earning.*: tiers as threshold:multiplier pairs in increasing threshold order,
+ * category multipliers as category:multiplier pairs and promotions as startDate/endDate:multiplier with both dates
+ * included, each list separated by commas.
+ */
+public final class EarningRules {
+
+    private static final long CENTS_PER_UNIT = 100L;
+
+    private static final long NO_PROMOTION = 1L;
+
+    /**
+     * Threshold of the tier below the lowest amount in the fixed-point range, which earns no points. Every amount is
+     * above it, so finding the tier of an amount needs no special case for amounts below the first threshold.
+     */
+    private static final long BASE_THRESHOLD_CENTS = -LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS - 1;
+
+    private final String tiers;
+
+    private final String categoryMultipliers;
+
+    private final String promotions;
+
+    /**
+     * Thresholds, multipliers and points of an amount of exactly the threshold, of the base tier at index 0 and of
+     * the defined tiers after it.
+     */
+    private final long[] thresholdCents;
+
+    private final long[] multipliers;
+
+    private final long[] pointsAtThreshold;
+
+    private final BigDecimal[] thresholds;
+
+    /**
+     * Whether points are only earned by tiers, without category multipliers or promotions.
+     */
+    private final boolean tiersOnly;
+
+    private final Map<String, Long> multiplierByCategory;
+
+    /**
+     * Epoch days on which the product of the promotions in force changes, and that product from each day on.
+     */
+    private final long[] promotionDays;
+
+    private final long[] promotionMultipliers;
+
+    private EarningRules(String tiers, String categoryMultipliers, String promotions) {
+        this.tiers = tiers;
+        this.categoryMultipliers = categoryMultipliers;
+        this.promotions = promotions;
+
+        List<String[]> tierEntries = entries(tiers, "tier");
+        thresholdCents = new long[tierEntries.size() + 1];
+        multipliers = new long[tierEntries.size() + 1];
+        pointsAtThreshold = new long[tierEntries.size() + 1];
+        thresholds = new BigDecimal[tierEntries.size()];
+        thresholdCents[0] = BASE_THRESHOLD_CENTS;
+        for (int tier = 1; tier <= tierEntries.size(); tier++) {
+            String[] entry = tierEntries.get(tier - 1);
+            BigDecimal threshold = parseAmount(entry[0]);
+            long cents = LoyaltyPointsUtil.toCents(threshold);
+            if (cents == LoyaltyPointsUtil.NOT_IN_CENTS || cents < 0) {
+                throw new IllegalArgumentException("Tier threshold must be a non-negative amount in cents up to "
+                        + LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS + ": " + entry[0]);
+            }
+            if (tier > 1 && cents <= thresholdCents[tier - 1]) {
+                throw new IllegalArgumentException("Tier thresholds must increase: " + tiers);
+            }
+            thresholdCents[tier] = cents;
+            multipliers[tier] = parseMultiplier(entry[1]);
+            thresholds[tier - 1] = threshold;
+            // Truncated per tier like LoyaltyPointsUtil, cannot overflow as cents and multipliers fit in an int
+            pointsAtThreshold[tier] = pointsAtThreshold[tier - 1]
+                    + (cents - thresholdCents[tier - 1]) * multipliers[tier - 1] / CENTS_PER_UNIT;
+        }
+
+        multiplierByCategory = new HashMap<>();
+        for (String[] entry : entries(categoryMultipliers, "category multiplier")) {
+            if (multiplierByCategory.put(entry[0], parseMultiplier(entry[1])) != null) {
+                throw new IllegalArgumentException("Duplicate category multiplier: " + entry[0]);
+            }
+        }
+
+        List<long[]> promotionRanges = new ArrayList<>();
+        TreeSet<Long> days = new TreeSet<>();
+        for (String[] entry : entries(promotions, "promotion")) {
+            String[] dates = entry[0].split("/", -1);
+            if (dates.length != 2) {
+                throw new IllegalArgumentException("Promotion dates must be startDate/endDate: " + entry[0]);
+            }
+            long startDay = parseDate(dates[0]).toEpochDay();
+            long endDay = parseDate(dates[1]).toEpochDay();
+            if (startDay > endDay) {
+                throw new IllegalArgumentException("Promotion start date must not be after end date: " + entry[0]);
+            }
+            promotionRanges.add(new long[] { startDay, endDay + 1, parseMultiplier(entry[1]) });
+            days.add(startDay);
+            days.add(endDay + 1);
+        }
+        promotionDays = days.stream().mapToLong(Long::longValue).toArray();
+        promotionMultipliers = new long[promotionDays.length];
+        for (int i = 0; i < promotionDays.length; i++) {
+            long multiplier = NO_PROMOTION;
+            for (long[] range : promotionRanges) {
+                if (range[0] <= promotionDays[i] && promotionDays[i] < range[1]) {
+                    multiplier = multiplyExact(multiplier, range[2], "Promotion multipliers");
+                }
+            }
+            promotionMultipliers[i] = multiplier;
+        }
+        tiersOnly = multiplierByCategory.isEmpty() && promotionDays.length == 0;
+    }
+
+    /**
+     * Compiles rule definitions, see the class comment for their format.
+     *
+     * @param tiers
+     * @param categoryMultipliers null or empty for none
+     * @param promotions          null or empty for none
+     * @return EarningRules
+     * @throws IllegalArgumentException when a definition is invalid
+     */
+    public static EarningRules compile(String tiers, String categoryMultipliers, String promotions) {
+        return new EarningRules(normalize(tiers), normalize(categoryMultipliers), normalize(promotions));
+    }
+
+    public String getTiers() {
+        return tiers;
+    }
+
+    public String getCategoryMultipliers() {
+        return categoryMultipliers;
+    }
+
+    public String getPromotions() {
+        return promotions;
+    }
+
+    /**
+     * Calculates the loyalty points of an order. Amounts with at most two decimal
+     * places are calculated in fixed-point cents, anything else falls back to exact
+     * decimal arithmetic. Both give the same result.
+     *
+     * @param totalOrderAmount
+     * @param category         null when the order has no category
+     * @param orderDate        null when the order has no order date
+     * @return loyalty points
+     * @throws IllegalArgumentException when the points do not fit in an int
+     */
+    public int calculatePoints(BigDecimal totalOrderAmount, String category, LocalDate orderDate) {
+        long totalOrderAmountCents = LoyaltyPointsUtil.toCents(totalOrderAmount);
+        if (totalOrderAmountCents != LoyaltyPointsUtil.NOT_IN_CENTS) {
+            return calculatePointsInCents(totalOrderAmountCents, category, orderDate);
+        }
+        BigInteger points = BigInteger.ZERO;
+        for (int tier = 0; tier < thresholds.length && totalOrderAmount.compareTo(thresholds[tier]) > 0; tier++) {
+            BigDecimal upTo = tier + 1 < thresholds.length ? totalOrderAmount.min(thresholds[tier + 1])
+                    : totalOrderAmount;
+            points = points.add(upTo.subtract(thresholds[tier])
+                    .multiply(BigDecimal.valueOf(multipliers[tier + 1]))
+                    .toBigInteger());
+        }
+        points = points.multiply(BigInteger.valueOf(categoryMultiplier(category)))
+                .multiply(BigInteger.valueOf(promotionMultiplier(orderDate)));
+        if (points.bitLength() >= Integer.SIZE) {
+            throw new IllegalArgumentException("Loyalty points out of range for order amount " + totalOrderAmount);
+        }
+        return points.intValue();
+    }
+
+    /**
+     * Calculates the loyalty points of an order amount given in cents, within
+     * +/-{@link LoyaltyPointsUtil#MAX_FIXED_POINT_CENTS}. Works on scaled integers
+     * only and allocates nothing. Points of each tier are truncated towards zero.
+     *
+     * @param totalOrderAmountCents
+     * @param category              null when the order has no category
+     * @param orderDate             null when the order has no order date
+     * @return loyalty points
+     * @throws IllegalArgumentException when the points do not fit in an int
+     */
+    public int calculatePointsInCents(long totalOrderAmountCents, String category, LocalDate orderDate) {
+        if (totalOrderAmountCents > LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS
+                || totalOrderAmountCents < -LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS) {
+            throw new IllegalArgumentException("Order amount out of range for fixed-point calculation");
+        }
+        long[] thresholds = thresholdCents;
+        // Counts the thresholds below the amount instead of branching on each, the base tier is always below
+        int tier = 0;
+        for (int i = 1; i < thresholds.length; i++) {
+            tier += thresholds[i] < totalOrderAmountCents ? 1 : 0;
+        }
+        long points = pointsAtThreshold[tier]
+                + (totalOrderAmountCents - thresholds[tier]) * multipliers[tier] / CENTS_PER_UNIT;
+        try {
+            if (!tiersOnly) {
+                points = Math.multiplyExact(Math.multiplyExact(points, categoryMultiplier(category)),
+                        promotionMultiplier(orderDate));
+            }
+            return Math.toIntExact(points);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("Loyalty points out of range for order amount in cents "
+                    + totalOrderAmountCents, ex);
+        }
+    }
+
+    private long categoryMultiplier(String category) {
+        if (category == null) {
+            return 1L;
+        }
+        Long multiplier = multiplierByCategory.get(category);
+        return multiplier == null ? 1L : multiplier;
+    }
+
+    private long promotionMultiplier(LocalDate orderDate) {
+        if (orderDate == null || promotionDays.length == 0) {
+            return NO_PROMOTION;
+        }
+        int index = Arrays.binarySearch(promotionDays, orderDate.toEpochDay());
+        if (index < 0) {
+            // Insertion point minus one, the last day at or before the order date
+            index = -index - 2;
+        }
+        return index < 0 ? NO_PROMOTION : promotionMultipliers[index];
+    }
+
+    private static String normalize(String definitions) {
+        return definitions == null ? "" : definitions.trim();
+    }
+
+    /**
+     * Splits comma separated key:multiplier entries, at the last colon of each.
+     */
+    private static List<String[]> entries(String definitions, String kind) {
+        List<String[]> entries = new ArrayList<>();
+        if (definitions.isEmpty()) {
+            return entries;
+        }
+        for (String entry : definitions.split(",")) {
+            int separator = entry.lastIndexOf(':');
+            String key = separator < 0 ? "" : entry.substring(0, separator).trim();
+            if (key.isEmpty()) {
+                throw new IllegalArgumentException("Invalid " + kind + ", expected key:multiplier: " + entry.trim());
+            }
+            entries.add(new String[] { key, entry.substring(separator + 1).trim() });
+        }
+        return entries;
+    }
+
+    private static BigDecimal parseAmount(String amount) {
+        try {
+            return new BigDecimal(amount);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid amount: " + amount, ex);
+        }
+    }
+
+    private static long parseMultiplier(String multiplier) {
+        try {
+            int value = Integer.parseInt(multiplier);
+            if (value < 0) {
+                throw new IllegalArgumentException("Multiplier must not be negative: " + multiplier);
+            }
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid multiplier: " + multiplier, ex);
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date.trim());
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid date: " + date, ex);
+        }
+    }
+
+    private static long multiplyExact(long a, long b, String what) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException(what + " out of range", ex);
+        }
+    }
+}
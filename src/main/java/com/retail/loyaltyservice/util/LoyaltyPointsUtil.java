@@ -18,12 +18,33 @@ import java.util.Map;
 @Slf4j
 public class LoyaltyPointsUtil {
 
-    private static final String THRESHOLD_HUNDRED = "100";
+    private static final BigDecimal THRESHOLD_HUNDRED = new BigDecimal("100");
 
-    private static final String THRESHOLD_FIFTY = "50";
+    private static final BigDecimal THRESHOLD_FIFTY = new BigDecimal("50");
+
+    private static final long THRESHOLD_HUNDRED_CENTS = 10_000L;
+
+    private static final long THRESHOLD_FIFTY_CENTS = 5_000L;
+
+    private static final long CENTS_PER_UNIT = 100L;
+
+    /**
+     * Largest absolute amount in cents accepted by the fixed-point calculation. Any int multiplier times an amount up
+     * to this bound fits in a long, so the calculation can never overflow.
+     */
+    static final long MAX_FIXED_POINT_CENTS = 1L << 31;
+
+    private static final int MAX_CENTS_PRECISION = 16;
+
+    private static final long[] CENTS_FACTOR = { 100L, 10L, 1L };
+
+    static final long NOT_IN_CENTS = Long.MIN_VALUE;
 
     /**
      * Method to calculate total loyalty points gained for total purchase amount.
+     * Amounts with at most two decimal places are calculated in fixed-point cents,
+     * anything else falls back to exact decimal arithmetic. Both give the same
+     * result.
      *
      * @param totalOrderAmount
      * @param spendMultiplierOverFifty
@@ -32,23 +53,85 @@ public class LoyaltyPointsUtil {
      */
     public static int calculatePoints(BigDecimal totalOrderAmount, int spendMultiplierOverFifty,
             int spendMultiplierOverHundred) {
-        log.debug("Calculating Loyalty points for the order amount : " + totalOrderAmount);
-        BigDecimal thresholdHundredDollars = new BigDecimal(THRESHOLD_HUNDRED);
-        BigDecimal thresholdFiftyDollars = new BigDecimal(THRESHOLD_FIFTY);
+        long totalOrderAmountCents = toCents(totalOrderAmount);
+        int totalLoyaltyPointsEarned;
+        if (totalOrderAmountCents != NOT_IN_CENTS) {
+            totalLoyaltyPointsEarned = calculatePointsInCents(totalOrderAmountCents, spendMultiplierOverFifty,
+                    spendMultiplierOverHundred);
+        } else {
+            totalLoyaltyPointsEarned = calculatePointsExact(totalOrderAmount, spendMultiplierOverFifty,
+                    spendMultiplierOverHundred);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Total Loyalty points earned for order amount {} is {}", totalOrderAmount,
+                    totalLoyaltyPointsEarned);
+        }
+        return totalLoyaltyPointsEarned;
+    }
 
-        int pointsForSpendingOver100 = totalOrderAmount.subtract(thresholdHundredDollars)
+    /**
+     * Method to calculate total loyalty points gained for total purchase amount
+     * given in cents. Works on scaled integers only and allocates nothing. Points
+     * of each threshold are truncated towards zero, like
+     * {@link BigDecimal#intValue()}.
+     *
+     * @param totalOrderAmountCents
+     * @param spendMultiplierOverFifty
+     * @param spendMultiplierOverHundred
+     * @return loyalty points
+     */
+    public static int calculatePointsInCents(long totalOrderAmountCents, int spendMultiplierOverFifty,
+            int spendMultiplierOverHundred) {
+        if (totalOrderAmountCents > MAX_FIXED_POINT_CENTS || totalOrderAmountCents < -MAX_FIXED_POINT_CENTS) {
+            throw new IllegalArgumentException("Order amount out of range for fixed-point calculation");
+        }
+        long centsOverHundred = Math.max(totalOrderAmountCents - THRESHOLD_HUNDRED_CENTS, 0L);
+        long centsOverFifty = Math.min(Math.max(totalOrderAmountCents - THRESHOLD_FIFTY_CENTS, 0L),
+                THRESHOLD_FIFTY_CENTS);
+
+        int pointsForSpendingOver100 = (int) (centsOverHundred * spendMultiplierOverHundred / CENTS_PER_UNIT);
+        int pointsForSpendingOver50 = (int) (centsOverFifty * spendMultiplierOverFifty / CENTS_PER_UNIT);
+        return pointsForSpendingOver100 + pointsForSpendingOver50;
+    }
+
+    /**
+     * Converts an amount to cents when that is exact and within the fixed-point
+     * range.
+     *
+     * @param amount
+     * @return amount in cents, or {@link #NOT_IN_CENTS}
+     */
+    static long toCents(BigDecimal amount) {
+        int scale = amount.scale();
+        if (scale < 0 || scale >= CENTS_FACTOR.length || amount.precision() > MAX_CENTS_PRECISION) {
+            return NOT_IN_CENTS;
+        }
+        long cents = amount.unscaledValue().longValue() * CENTS_FACTOR[scale];
+        return Math.abs(cents) <= MAX_FIXED_POINT_CENTS ? cents : NOT_IN_CENTS;
+    }
+
+    /**
+     * Method to calculate total loyalty points with exact decimal arithmetic, for
+     * amounts the fixed-point calculation cannot represent.
+     *
+     * @param totalOrderAmount
+     * @param spendMultiplierOverFifty
+     * @param spendMultiplierOverHundred
+     * @return loyalty points
+     */
+    public static int calculatePointsExact(BigDecimal totalOrderAmount, int spendMultiplierOverFifty,
+            int spendMultiplierOverHundred) {
+        int pointsForSpendingOver100 = totalOrderAmount.subtract(THRESHOLD_HUNDRED)
                 .max(BigDecimal.ZERO)
-                .multiply(new BigDecimal(spendMultiplierOverHundred))
+                .multiply(BigDecimal.valueOf(spendMultiplierOverHundred))
                 .intValue();
 
-        int pointsForSpendingOver50 = totalOrderAmount.subtract(thresholdFiftyDollars)
+        int pointsForSpendingOver50 = totalOrderAmount.subtract(THRESHOLD_FIFTY)
                 .max(BigDecimal.ZERO)
-                .min(thresholdFiftyDollars)
-                .multiply(new BigDecimal(spendMultiplierOverFifty))
+                .min(THRESHOLD_FIFTY)
+                .multiply(BigDecimal.valueOf(spendMultiplierOverFifty))
                 .intValue();
-        int totalLoyaltyPointsEarned = pointsForSpendingOver100 + pointsForSpendingOver50;
-        log.info("Total Loyalty points earned is for this order: " + totalLoyaltyPointsEarned);
-        return totalLoyaltyPointsEarned;
+        return pointsForSpendingOver100 + pointsForSpendingOver50;
     }
 
     /**
@@ -0,0 +1,36 @@
+-- Schema of the prod profile. Identifiers are quoted lowercase to match the names Hibernate uses with
+-- hibernate.globally_quoted_identifiers, the entities are validated against it on startup.
+
+CREATE SEQUENCE "orders_seq" START WITH 1 INCREMENT BY 50;
+
+-- The primary key index serves all lookups by customer id
+CREATE TABLE "customers" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    "address" VARCHAR(255),
+    "email" VARCHAR(255),
+    "loyalty_points" INTEGER NOT NULL,
+    "name" VARCHAR(255),
+    CONSTRAINT "pk_customers" PRIMARY KEY ("id")
+);
+
+CREATE TABLE "orders" (
+    "id" BIGINT NOT NULL,
+    "loyalty_points" INTEGER NOT NULL,
+    "order_date" DATE,
+    "total_amount" NUMERIC(38, 2),
+    "reference_id" BIGINT,
+    CONSTRAINT "pk_orders" PRIMARY KEY ("id"),
+    CONSTRAINT "fk_orders_customers" FOREIGN KEY ("reference_id") REFERENCES "customers" ("id")
+);
+
+-- Orders of a customer by date, for summaries, cursor pages and batch ingestion
+CREATE INDEX "idx_orders_reference_id_order_date" ON "orders" ("reference_id", "order_date");
+
+CREATE TABLE "customer_monthly_points" (
+    "id" BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    "customer_id" BIGINT,
+    "period" INTEGER NOT NULL,
+    "points" BIGINT NOT NULL,
+    CONSTRAINT "pk_customer_monthly_points" PRIMARY KEY ("id"),
+    CONSTRAINT "uk_customer_monthly_points_customer_period" UNIQUE ("customer_id", "period")
+);
@@ -0,0 +1,29 @@
+-- Points ledger, the source of truth for balances, and the per-customer snapshots folded from it
+
+CREATE SEQUENCE "points_transactions_seq" START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE "points_transactions" (
+    "id" BIGINT NOT NULL,
+    "created_at" TIMESTAMP(6) WITH TIME ZONE,
+    "customer_id" BIGINT,
+    "order_id" BIGINT,
+    "points" INTEGER NOT NULL,
+    "type" VARCHAR(255),
+    CONSTRAINT "pk_points_transactions" PRIMARY KEY ("id")
+);
+
+-- Ledger entries of a customer after a snapshot
+CREATE INDEX "idx_points_transactions_customer_id_id" ON "points_transactions" ("customer_id", "id");
+
+CREATE TABLE "points_snapshots" (
+    "customer_id" BIGINT NOT NULL,
+    "balance" BIGINT NOT NULL,
+    "last_transaction_id" BIGINT NOT NULL,
+    "taken_at" TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT "pk_points_snapshots" PRIMARY KEY ("customer_id")
+);
+
+-- Balances from before the ledger are carried over as opening adjustments
+INSERT INTO "points_transactions" ("id", "created_at", "customer_id", "points", "type")
+SELECT NEXT VALUE FOR "points_transactions_seq", CURRENT_TIMESTAMP, "id", "loyalty_points", 'ADJUST'
+FROM "customers" WHERE "loyalty_points" <> 0;
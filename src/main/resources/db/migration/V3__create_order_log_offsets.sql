@@ -0,0 +1,7 @@
+-- Offsets up to which order logs have been applied, moved in the transaction that saves the orders
+
+CREATE TABLE "order_log_offsets" (
+    "name" VARCHAR(255) NOT NULL,
+    "committed_offset" BIGINT NOT NULL,
+    CONSTRAINT "pk_order_log_offsets" PRIMARY KEY ("name")
+);
@@ -0,0 +1,3 @@
+-- Product category of an order, which the earning rules may multiply the points of
+
+ALTER TABLE "orders" ADD COLUMN "category" VARCHAR(32);
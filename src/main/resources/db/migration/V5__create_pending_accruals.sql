@@ -0,0 +1,10 @@
+-- Points of orders not yet added to the balance in asynchronous accrual mode, deleted once applied
+
+CREATE TABLE "pending_accruals" (
+    "order_id" BIGINT NOT NULL,
+    "customer_id" BIGINT,
+    "points" INTEGER NOT NULL,
+    "period" INTEGER,
+    "created_at" TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT "pk_pending_accruals" PRIMARY KEY ("order_id")
+);
@@ -0,0 +1,5 @@
+-- Idempotency key sent by the client with an order, so that a retried request does not create the order twice
+
+ALTER TABLE "orders" ADD COLUMN "idempotency_key" VARCHAR(64);
+
+ALTER TABLE "orders" ADD CONSTRAINT "uk_orders_idempotency_key" UNIQUE ("idempotency_key");
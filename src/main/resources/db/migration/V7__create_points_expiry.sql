@@ -0,0 +1,17 @@
+-- Points settled oldest first per customer by expiry, and the progress of each worker of the current expiry sweep
+
+CREATE TABLE "points_expiries" (
+    "customer_id" BIGINT NOT NULL,
+    "settled_points" BIGINT NOT NULL,
+    CONSTRAINT "pk_points_expiries" PRIMARY KEY ("customer_id")
+);
+
+CREATE TABLE "expiry_checkpoints" (
+    "worker" INTEGER NOT NULL,
+    "cutoff_period" INTEGER NOT NULL,
+    "range_start" BIGINT NOT NULL,
+    "range_end" BIGINT NOT NULL,
+    "last_customer_id" BIGINT NOT NULL,
+    "completed" BOOLEAN NOT NULL,
+    CONSTRAINT "pk_expiry_checkpoints" PRIMARY KEY ("worker")
+);
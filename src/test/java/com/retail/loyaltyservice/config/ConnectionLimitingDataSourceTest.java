@@ -0,0 +1,71 @@
+package com.retail.loyaltyservice.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private DataSource targetDataSource;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        targetDataSource = mock(DataSource.class);
+        doAnswer(invocation -> mock(Connection.class))
+                .when(targetDataSource)
+                .getConnection();
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 2, 50);
+    }
+
+    @Test
+    public void testGetConnection_BeyondLimit_TimesOut() throws SQLException {
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        assertEquals(0, dataSource.getAvailablePermits());
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        first.close();
+        dataSource.getConnection();
+        verify(targetDataSource, times(3)).getConnection();
+    }
+
+    @Test
+    public void testClose_Twice_ReleasesOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testGetConnection_Failure_ReleasesPermit() throws SQLException {
+        doThrow(new SQLException("database unavailable"))
+                .when(targetDataSource)
+                .getConnection();
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+        assertEquals(2, dataSource.getAvailablePermits());
+    }
+
+    @Test
+    public void testConnection_DelegatesToTarget() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.commit();
+
+        assertEquals(connection, connection);
+    }
+}
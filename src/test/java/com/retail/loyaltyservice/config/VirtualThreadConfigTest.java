@@ -0,0 +1,67 @@
+package com.retail.loyaltyservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs only on Java 21 or later, where virtual threads are available.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "loyalty.service.virtual_threads.enabled=true")
+@EnabledIf("virtualThreadsSupported")
+class VirtualThreadConfigTest {
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void testRequestExecutor_RunsOnVirtualThreads() throws Exception {
+        Executor executor = ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector().getProtocolHandler()
+                .getExecutor();
+
+        assertTrue(runsOnVirtualThread(executor));
+        assertTrue(runsOnVirtualThread(applicationTaskExecutor));
+    }
+
+    @Test
+    public void testDataSource_LimitsConnections() {
+        assertInstanceOf(ConnectionLimitingDataSource.class, dataSource);
+        assertEquals(10, ((ConnectionLimitingDataSource) dataSource).getAvailablePermits());
+    }
+
+    static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private static boolean runsOnVirtualThread(Executor executor) throws Exception {
+        CompletableFuture<Boolean> virtual = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                virtual.complete((Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()));
+            } catch (ReflectiveOperationException ex) {
+                virtual.completeExceptionally(ex);
+            }
+        });
+        return virtual.get(5, TimeUnit.SECONDS);
+    }
+}
@@ -1,12 +1,20 @@
 package com.retail.loyaltyservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.LoyaltySummary;
 import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.model.PointsRedemption;
+import com.retail.loyaltyservice.service.CustomerVersions;
+import com.retail.loyaltyservice.service.LoyaltyReportService;
 import com.retail.loyaltyservice.service.LoyaltyService;
+import com.retail.loyaltyservice.service.PointsRedemptionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -19,12 +27,17 @@ import static org.springframework.http.HttpStatus.OK;
 public class LoyaltyControllerTest {
 
     private LoyaltyService loyaltyService;
+    private PointsRedemptionService pointsRedemptionService;
+    private CustomerVersions customerVersions;
     private LoyaltyController loyaltyController;
 
     @BeforeEach
     public void setUp() {
         loyaltyService = mock(LoyaltyService.class);
-        loyaltyController = new LoyaltyController(loyaltyService);
+        pointsRedemptionService = mock(PointsRedemptionService.class);
+        customerVersions = new CustomerVersions();
+        loyaltyController = new LoyaltyController(loyaltyService, mock(LoyaltyReportService.class),
+                pointsRedemptionService, customerVersions, new ObjectMapper());
     }
 
     @Test
@@ -47,7 +60,8 @@ public class LoyaltyControllerTest {
                 .when(loyaltyService)
                 .getLoyaltySummary(customerId, startDate, endDate);
 
-        ResponseEntity<LoyaltySummary> response = loyaltyController.getLoyaltySummary(customerId, startDate, endDate);
+        ResponseEntity<LoyaltySummary> response = loyaltyController.getLoyaltySummary(customerId, startDate, endDate,
+                request(new MockHttpServletRequest("GET", "/api/v1/loyalty/summary")));
 
         verify(loyaltyService).getLoyaltySummary(customerId, startDate, endDate);
         assertThat(response.getStatusCode()).isEqualTo(OK);
@@ -62,10 +76,64 @@ public class LoyaltyControllerTest {
                 .when(loyaltyService)
                 .getLoyaltyPoints(customerId);
 
-        ResponseEntity<Integer> response = loyaltyController.getLoyaltyPoints(customerId);
+        ResponseEntity<Integer> response = loyaltyController.getLoyaltyPoints(customerId,
+                request(new MockHttpServletRequest("GET", "/api/v1/loyalty/1")));
 
         verify(loyaltyService).getLoyaltyPoints(customerId);
         assertThat(response.getStatusCode()).isEqualTo(OK);
         assertThat(response.getBody()).isEqualTo(expectedResult);
     }
+
+    @Test
+    public void testGetLoyaltyPoints_IfNoneMatchCurrentVersion_NotModified() {
+        long customerId = 1L;
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/v1/loyalty/1");
+        servletRequest.addHeader("If-None-Match", customerVersions.getETag(customerId));
+        ServletWebRequest request = request(servletRequest);
+
+        ResponseEntity<Integer> response = loyaltyController.getLoyaltyPoints(customerId, request);
+
+        verifyNoInteractions(loyaltyService);
+        assertThat(response).isNull();
+        assertThat(request.getResponse().getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    public void testGetLoyaltySummary_AfterBump_Success() {
+        long customerId = 1L;
+        LocalDate startDate = LocalDate.of(2023, 1, 1);
+        LocalDate endDate = LocalDate.of(2023, 3, 1);
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/v1/loyalty/summary");
+        servletRequest.addHeader("If-None-Match", customerVersions.getETag(customerId));
+        customerVersions.bump(customerId);
+        ServletWebRequest request = request(servletRequest);
+
+        ResponseEntity<LoyaltySummary> response = loyaltyController.getLoyaltySummary(customerId, startDate, endDate,
+                request);
+
+        verify(loyaltyService).getLoyaltySummary(customerId, startDate, endDate);
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(request.getResponse().getHeader("ETag")).isEqualTo(customerVersions.getETag(customerId));
+    }
+
+    @Test
+    public void testRedeem_Success() {
+        long customerId = 1L;
+        PointsRedemption expectedResult = PointsRedemption.builder().customerId(customerId).points(50)
+                .loyaltyPoints(40).build();
+        doReturn(expectedResult)
+                .when(pointsRedemptionService)
+                .redeem(customerId, 50);
+
+        ResponseEntity<PointsRedemption> response = loyaltyController.redeem(customerId,
+                PointsRedemption.builder().points(50).build());
+
+        verify(pointsRedemptionService).redeem(customerId, 50);
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody()).isEqualTo(expectedResult);
+    }
+
+    private static ServletWebRequest request(MockHttpServletRequest servletRequest) {
+        return new ServletWebRequest(servletRequest, new MockHttpServletResponse());
+    }
 }
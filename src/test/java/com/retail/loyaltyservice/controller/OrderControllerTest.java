@@ -1,7 +1,14 @@
 package com.retail.loyaltyservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderBatchSummary;
+import com.retail.loyaltyservice.model.OrderPage;
+import com.retail.loyaltyservice.model.OrderResponse;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderIdempotency;
+import com.retail.loyaltyservice.service.OrderIngestionService;
 import com.retail.loyaltyservice.service.OrderService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,70 +18,150 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
+import static org.springframework.http.HttpStatus.ACCEPTED;
 import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.HttpStatus.OK;
 
 public class OrderControllerTest {
 
     private OrderService orderService;
+    private OrderIngestionService orderIngestionService;
+    private OrderIdempotency orderIdempotency;
     private OrderController orderController;
 
     @BeforeEach
     public void setUp() {
         orderService = mock(OrderService.class);
-        orderController = new OrderController(orderService);
+        orderIngestionService = mock(OrderIngestionService.class);
+        orderIdempotency = mock(OrderIdempotency.class);
+        orderController = new OrderController(orderService, orderIngestionService, mock(CustomerService.class),
+                new ObjectMapper(), orderIdempotency);
     }
 
     @Test
     public void testCreate_Success() {
-        Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 63, Customer.builder().build(), LocalDate.now());
+        Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 63, Customer.builder().build(), LocalDate.now(), null, null);
 
-        Order expectedResult = new Order(1L, BigDecimal.valueOf(45.3), 25, Customer.builder().build(), LocalDate.now());
+        Order expectedResult = new Order(1L, BigDecimal.valueOf(45.3), 25, Customer.builder().build(), LocalDate.now(), null, null);
         doReturn(expectedResult)
                 .when(orderService)
                 .create(any());
 
-        ResponseEntity<Order> response = orderController.create(orderToCreate);
+        ResponseEntity<OrderResponse> response = orderController.create(orderToCreate, null);
 
         verify(orderService).create(orderToCreate);
         assertThat(response.getStatusCode()).isEqualTo(CREATED);
-        assertThat(response.getBody()).isEqualTo(expectedResult);
+        assertThat(response.getBody()).usingRecursiveComparison().isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void testCreate_OrderLogEnabled_Accepted() {
+        Order orderToAccept = new Order(0L, BigDecimal.valueOf(120), 0, Customer.builder().id(1L).build(),
+                LocalDate.now(), null, null);
+        Order expectedResult = new Order(0L, BigDecimal.valueOf(120), 90, Customer.builder().id(1L).build(),
+                LocalDate.now(), null, null);
+        doReturn(true)
+                .when(orderService)
+                .isOrderLogEnabled();
+        doReturn(expectedResult)
+                .when(orderService)
+                .accept(any());
+
+        ResponseEntity<OrderResponse> response = orderController.create(orderToAccept, null);
+
+        verify(orderService).accept(orderToAccept);
+        verify(orderService, never()).create(any());
+        assertThat(response.getStatusCode()).isEqualTo(ACCEPTED);
+        assertThat(response.getBody()).usingRecursiveComparison().isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void testCreate_IdempotencyKeyReplayed_OriginalResponse() {
+        Order retriedOrder = new Order(0L, BigDecimal.valueOf(120), 0, Customer.builder().id(1L).build(),
+                LocalDate.now(), null, null);
+        OrderResponse originalResponse = OrderResponse.builder().id(7L).totalAmount(BigDecimal.valueOf(120))
+                .loyaltyPoints(90).customer(Customer.builder().id(1L).build()).idempotencyKey("pos-17-0042").build();
+        doReturn(Optional.of(originalResponse))
+                .when(orderIdempotency)
+                .findReplay(any());
+
+        ResponseEntity<OrderResponse> response = orderController.create(retriedOrder, "pos-17-0042");
+
+        verify(orderIdempotency).findReplay(argThat(order -> "pos-17-0042".equals(order.getIdempotencyKey())));
+        verify(orderService, never()).create(any());
+        assertThat(response.getStatusCode()).isEqualTo(CREATED);
+        assertThat(response.getBody()).isSameAs(originalResponse);
     }
 
     @Test
     public void testGet_Success() {
         long orderId = 1L;
         Order expectedResult = new Order(orderId, BigDecimal.valueOf(45.3), 19, Customer.builder().build(),
-                LocalDate.now());
+                LocalDate.now(), null, null);
         doReturn(expectedResult)
                 .when(orderService)
                 .get(orderId);
 
-        ResponseEntity<Order> response = orderController.get(orderId);
+        ResponseEntity<OrderResponse> response = orderController.get(orderId);
 
         verify(orderService).get(orderId);
         assertThat(response.getStatusCode()).isEqualTo(OK);
-        assertThat(response.getBody()).isEqualTo(expectedResult);
+        assertThat(response.getBody()).usingRecursiveComparison().isEqualTo(expectedResult);
     }
 
     @Test
     public void testGetByCustomerId_Success() {
         long customerId = 1L;
         List<Order> expectedResultList = Arrays
-                .asList(new Order(1L, BigDecimal.valueOf(45.3), 16, Customer.builder().build(), LocalDate.now()));
+                .asList(new Order(1L, BigDecimal.valueOf(45.3), 16, Customer.builder().build(), LocalDate.now(), null, null));
 
         doReturn(expectedResultList)
                 .when(orderService)
                 .getByCustomerId(customerId);
 
-        ResponseEntity<List<Order>> response = orderController.getByCustomerId(customerId);
+        ResponseEntity<List<OrderResponse>> response = orderController.getByCustomerId(customerId);
 
         verify(orderService).getByCustomerId(customerId);
         assertThat(response.getStatusCode()).isEqualTo(OK);
-        assertThat(response.getBody()).isEqualTo(expectedResultList);
+        assertThat(response.getBody()).usingRecursiveComparison().isEqualTo(expectedResultList);
+    }
+
+    @Test
+    public void testCreateAll_Success() {
+        List<Order> ordersToCreate = Arrays.asList(
+                new Order(0L, BigDecimal.valueOf(120), 0, Customer.builder().id(1L).build(), LocalDate.now(), null, null),
+                new Order(0L, BigDecimal.valueOf(75), 0, Customer.builder().id(2L).build(), LocalDate.now(), null, null));
+        OrderBatchSummary expectedResult = new OrderBatchSummary(2, 2, 115);
+        doReturn(expectedResult)
+                .when(orderIngestionService)
+                .createAll(any());
+
+        ResponseEntity<OrderBatchSummary> response = orderController.createAll(ordersToCreate);
+
+        verify(orderIngestionService).createAll(ordersToCreate);
+        assertThat(response.getStatusCode()).isEqualTo(CREATED);
+        assertThat(response.getBody()).isEqualTo(expectedResult);
+    }
+
+    @Test
+    public void testGetPageByCustomerId_Success() {
+        OrderPage expectedResult = OrderPage.builder()
+                .orders(Arrays.asList(OrderResponse.from(
+                        new Order(1L, BigDecimal.valueOf(45.3), 0, Customer.builder().build(), null, null, null))))
+                .nextCursor("MTo")
+                .build();
+        doReturn(expectedResult)
+                .when(orderService)
+                .getPageByCustomerId(1L, null, 50);
+
+        ResponseEntity<OrderPage> response = orderController.getPageByCustomerId(1L, null, 50);
+
+        assertThat(response.getStatusCode()).isEqualTo(OK);
+        assertThat(response.getBody()).isEqualTo(expectedResult);
     }
 }
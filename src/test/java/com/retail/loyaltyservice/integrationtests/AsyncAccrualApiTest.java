@@ -0,0 +1,102 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.OrderAccrualStatus;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.service.PointsLedgerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Orders acknowledged in asynchronous accrual mode have their points added to the balance, the ledger and the monthly
+ * rollup by the accrual consumer, which the status endpoint reports.
+ */
+@SpringBootTest(properties = "loyalty.service.async_accrual.enabled=true")
+@AutoConfigureMockMvc
+public class AsyncAccrualApiTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final int ORDERS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerRepository customerRepo;
+
+    @Autowired
+    private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    @Autowired
+    private PointsLedgerService pointsLedger;
+
+    @Test
+    public void testCreate_PointsAppliedAsynchronously() throws Exception {
+        Customer customer = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            String response = mockMvc.perform(post("/api/v1/orders")
+                            .contentType(APPLICATION_JSON)
+                            .content("{\"totalAmount\":120,\"customer\":{\"id\":" + customer.getId()
+                                    + "},\"orderDate\":\"2023-0" + (1 + i % 2) + "-14\"}"))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.loyaltyPoints").value(90))
+                    .andReturn().getResponse().getContentAsString();
+            orderIds.add(objectMapper.readTree(response).get("id").asLong());
+        }
+
+        for (Long orderId : orderIds) {
+            awaitApplied(orderId);
+        }
+
+        int expectedPoints = ORDERS * 90;
+        assertEquals(expectedPoints, customerRepo.findById(customer.getId()).get().getLoyaltyPoints());
+        assertEquals(expectedPoints, pointsLedger.getBalance(customer.getId()));
+        List<CustomerMonthlyPoints> monthlyPoints = monthlyPointsRepo
+                .findByCustomerIdAndPeriodBetweenOrderByPeriod(customer.getId(), 202301, 202312);
+        assertEquals(2, monthlyPoints.size());
+        assertEquals(expectedPoints / 2, monthlyPoints.get(0).getPoints());
+    }
+
+    @Test
+    public void testGetAccrualStatus_OrderNotFound_Status404() throws Exception {
+        mockMvc.perform(get("/api/v1/orders/" + Long.MAX_VALUE + "/accrual"))
+                .andExpect(status().isNotFound());
+    }
+
+    private void awaitApplied(Long orderId) throws Exception {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (true) {
+            String response = mockMvc.perform(get("/api/v1/orders/" + orderId + "/accrual"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            if (objectMapper.readValue(response, OrderAccrualStatus.class).isApplied()) {
+                return;
+            }
+            assertTrue(System.nanoTime() < deadline, "Points of order " + orderId + " not applied in time");
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.EarningRuleEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Earning rules swapped through the actuator endpoint apply to the next order without a restart.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class EarningRulesApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private EarningRuleEngine earningRuleEngine;
+
+    @AfterEach
+    public void restoreRules() {
+        earningRuleEngine.update("50:1,100:2", "", "");
+    }
+
+    @Test
+    public void testUpdate_NextOrderEarnsWithNewRules() throws Exception {
+        Long customerId = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala")
+                .build()).getId();
+        mockMvc.perform(get("/actuator/earningrules"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tiers").value("50:1,100:2"));
+
+        mockMvc.perform(post("/actuator/earningrules")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"tiers\":\"0:1,100:3\",\"categoryMultipliers\":\"grocery:2\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tiers").value("0:1,100:3"))
+                .andExpect(jsonPath("$.categoryMultipliers").value("grocery:2"))
+                .andExpect(jsonPath("$.promotions").value(""));
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"totalAmount\":120,\"customer\":{\"id\":" + customerId
+                                + "},\"orderDate\":\"2023-03-14\",\"category\":\"grocery\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.loyaltyPoints").value(320))
+                .andExpect(jsonPath("$.category").value("grocery"));
+    }
+
+    @Test
+    public void testUpdate_InvalidRules_KeepsRulesInForce() throws Exception {
+        mockMvc.perform(post("/actuator/earningrules")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"tiers\":\"100:2,50:1\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/actuator/earningrules"))
+                .andExpect(jsonPath("$.tiers").value("50:1,100:2"));
+    }
+}
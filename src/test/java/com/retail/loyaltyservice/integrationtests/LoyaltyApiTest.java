@@ -1,6 +1,9 @@
 package com.retail.loyaltyservice.integrationtests;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.LoyaltySummary;
 import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
@@ -12,15 +15,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -79,6 +86,48 @@ public class LoyaltyApiTest {
                 .andExpect(content().string(asJsonString(expectedResult)));
     }
 
+    @Test
+    public void testGetLoyaltySummary_Smile_Status200() throws Exception {
+        MediaType smile = new MediaType("application", "x-jackson-smile");
+        ObjectMapper smileMapper = new SmileMapper().registerModule(new JavaTimeModule());
+        List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints = Arrays.asList(
+                MonthlyLoyaltyPoints.builder().month(1).year(2023).points(50).build(),
+                MonthlyLoyaltyPoints.builder().month(2).year(2023).points(210).build(),
+                MonthlyLoyaltyPoints.builder().month(3).year(2023).points(10).build());
+        LoyaltySummary expectedResult = LoyaltySummary.builder()
+                .customer(Customer.builder().id(1L).name("John Doe").address("Cochin, Kerala").build())
+                .monthlyLoyaltyPoints(monthlyLoyaltyPoints).totalPoints(270).build();
+        doReturn(expectedResult)
+                .when(loyaltyService)
+                .getLoyaltySummary(1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 3, 1));
+
+        MvcResult result = mockMvc.perform(get(getUrl() + "/summary?customerId=1&startDate=2023-01-01&endDate=2023-03-01")
+                .accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertThat(smileMapper.readValue(body, LoyaltySummary.class)).usingRecursiveComparison()
+                .isEqualTo(expectedResult);
+        assertThat(body.length).isLessThan(asJsonString(expectedResult).length());
+    }
+
+    @Test
+    public void testGetLoyaltyByCustomerId_Cbor_Status200() throws Exception {
+        doReturn(50)
+                .when(loyaltyService)
+                .getLoyaltyPoints(1L);
+
+        MvcResult result = mockMvc.perform(get(getUrl() + "/1").accept(APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_CBOR))
+                .andReturn();
+
+        assertThat(new CBORMapper().readValue(result.getResponse().getContentAsByteArray(), Integer.class))
+                .isEqualTo(50);
+    }
+
     @Test
     public void testGetLoyaltySummary_Fail_Status404() throws Exception {
         long customerId = 1L;
@@ -0,0 +1,124 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional requests to the loyalty endpoints against the real database. An unchanged customer is answered with 304
+ * without a single SQL statement, and orders and updates of the customer change the ETag.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LoyaltyConditionalRequestTest {
+
+    private static final String SUMMARY = "/api/v1/loyalty/summary?customerId=%d&startDate=2023-01-01&endDate=2023-12-31";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testGetLoyaltyPoints_IfNoneMatch_NotModifiedWithoutStatements() throws Exception {
+        Long customerId = createCustomer();
+        createOrder(customerId);
+        String eTag = mockMvc.perform(get("/api/v1/loyalty/" + customerId).contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().string("90"))
+                .andReturn().getResponse().getHeader("ETag");
+        long before = statistics().getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/v1/loyalty/" + customerId).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+
+        assertEquals(0, statistics().getPrepareStatementCount() - before);
+    }
+
+    @Test
+    public void testGetLoyaltyPoints_AfterOrder_NewETag() throws Exception {
+        Long customerId = createCustomer();
+        String eTag = mockMvc.perform(get("/api/v1/loyalty/" + customerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        createOrder(customerId);
+
+        String newETag = mockMvc.perform(get("/api/v1/loyalty/" + customerId).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(content().string("90"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    public void testGetLoyaltySummary_IfModifiedSince_NotModifiedUntilUpdate() throws Exception {
+        Long customerId = createCustomer();
+        createOrder(customerId);
+        String lastModified = mockMvc.perform(get(SUMMARY.formatted(customerId)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("Last-Modified");
+        long before = statistics().getPrepareStatementCount();
+
+        mockMvc.perform(get(SUMMARY.formatted(customerId)).header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotModified());
+        assertEquals(0, statistics().getPrepareStatementCount() - before);
+
+        String eTag = mockMvc.perform(get(SUMMARY.formatted(customerId)))
+                .andReturn().getResponse().getHeader("ETag");
+        customerService.update(Customer.builder().id(customerId).name("Jane Doe").address("Cochin, Kerala")
+                .loyaltyPoints(90).build());
+
+        mockMvc.perform(get(SUMMARY.formatted(customerId)).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    private Long createCustomer() {
+        return customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build())
+                .getId();
+    }
+
+    private void createOrder(Long customerId) {
+        orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customerId).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .build());
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
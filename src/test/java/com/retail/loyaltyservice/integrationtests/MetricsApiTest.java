@@ -0,0 +1,46 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Metrics export is disabled in tests unless observability is auto-configured explicitly.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class MetricsApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testPrometheusScrape_ExposesPhaseTimersAndCounters() throws Exception {
+        mockMvc.perform(get("/api/v1/loyalty/404").contentType(APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("loyalty_not_found_total 1.0")))
+                .andExpect(content().string(containsString("loyalty_orders_created_total")))
+                .andExpect(content().string(containsString(
+                        "loyalty_service_seconds{class=\"com.retail.loyaltyservice.service.LoyaltyService\"")))
+                .andExpect(content().string(containsString(
+                        "spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("hibernate_second_level_cache_requests_total")))
+                .andExpect(content().string(containsString(
+                        "hibernate_second_level_cache_hit_ratio{region=\"customers\"")))
+                .andExpect(content().string(containsString("loyalty_serialization_seconds_count{format=\"json\",type=\"ApiError\"")));
+    }
+}
@@ -1,9 +1,14 @@
 package com.retail.loyaltyservice.integrationtests;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderBatchSummary;
+import com.retail.loyaltyservice.model.OrderResponse;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderIngestionService;
 import com.retail.loyaltyservice.service.OrderService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
@@ -12,17 +17,27 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Consumer;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.springframework.http.MediaType.APPLICATION_CBOR;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,9 +52,15 @@ public class OrderApiTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderIngestionService orderIngestionService;
+
+    @MockBean
+    private CustomerService customerService;
+
     @Test
     public void testCreate_Success_Status201() throws Exception {
-        Order order = new Order(0L, BigDecimal.valueOf(45.3), 49, Customer.builder().build(), null);
+        Order order = new Order(0L, BigDecimal.valueOf(45.3), 49, Customer.builder().build(), null, null, null);
         doReturn(order)
                 .when(orderService)
                 .create(any());
@@ -50,9 +71,54 @@ public class OrderApiTest {
                 .andExpect(content().string(asJsonString(order)));
     }
 
+    @Test
+    public void testCreate_Cbor_Status201() throws Exception {
+        ObjectMapper cborMapper = new CBORMapper().registerModule(new JavaTimeModule());
+        Order order = new Order(0L, BigDecimal.valueOf(120), 90, Customer.builder().id(1L).name("John Doe").build(),
+                LocalDate.of(2023, 3, 14), null, null);
+        doReturn(order)
+                .when(orderService)
+                .create(any());
+        MvcResult result = mockMvc.perform(post(getUrl()).content(cborMapper.writeValueAsBytes(order))
+                .contentType(APPLICATION_CBOR)
+                .accept(APPLICATION_CBOR))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_CBOR))
+                .andReturn();
+
+        assertThat(cborMapper.readValue(result.getResponse().getContentAsByteArray(), OrderResponse.class))
+                .usingRecursiveComparison().isEqualTo(order);
+    }
+
+    @Test
+    public void testCreateAll_Success_Status201() throws Exception {
+        List<Order> orders = Arrays.asList(
+                new Order(0L, BigDecimal.valueOf(120), 0, Customer.builder().id(1L).build(), null, null, null),
+                new Order(0L, BigDecimal.valueOf(75), 0, Customer.builder().id(2L).build(), null, null, null));
+        OrderBatchSummary summary = new OrderBatchSummary(2, 2, 115);
+        doReturn(summary)
+                .when(orderIngestionService)
+                .createAll(any());
+        mockMvc.perform(post(getUrl() + "/batch").content(asJsonString(orders))
+                .contentType(APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andExpect(content().string(asJsonString(summary)));
+    }
+
+    @Test
+    public void testCreateAll_Fail_Status404() throws Exception {
+        doThrow(EntityNotFoundException.class)
+                .when(orderIngestionService).createAll(any());
+        mockMvc.perform(post(getUrl() + "/batch").content("[{\"totalAmount\":120,\"customer\":{\"id\":9}}]")
+                .contentType(APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("Data does not exist")));
+    }
+
     @Test
     public void testGet_Success_Status200() throws Exception {
-        Order order = new Order(0L, BigDecimal.valueOf(45.3), 49, Customer.builder().build(), null);
+        Order order = new Order(0L, BigDecimal.valueOf(45.3), 49, Customer.builder().build(), null, null, null);
         doReturn(order)
                 .when(orderService)
                 .get(anyLong());
@@ -75,7 +141,7 @@ public class OrderApiTest {
     @Test
     public void testGetByCustomerId_Success_Status200() throws Exception {
         List<Order> expectedResultList = Arrays
-                .asList(new Order(1L, BigDecimal.valueOf(45.3), 49, Customer.builder().build(), null));
+                .asList(new Order(1L, BigDecimal.valueOf(45.3), 49, Customer.builder().build(), null, null, null));
         doReturn(expectedResultList)
                 .when(orderService)
                 .getByCustomerId(anyLong());
@@ -95,6 +161,35 @@ public class OrderApiTest {
                 .andExpect(jsonPath("$.message", is("Data does not exist")));
     }
 
+    @Test
+    public void testStreamByCustomerId_Success_Ndjson() throws Exception {
+        Order first = new Order(1L, BigDecimal.valueOf(45.3), 0, Customer.builder().id(123L).build(), null, null, null);
+        Order second = new Order(2L, BigDecimal.valueOf(120), 90, Customer.builder().id(123L).build(), null, null, null);
+        doAnswer(invocation -> {
+            Consumer<Order> action = invocation.getArgument(1);
+            action.accept(first);
+            action.accept(second);
+            return null;
+        }).when(orderService).streamByCustomerId(eq(123L), any());
+
+        MvcResult result = mockMvc.perform(get(getUrl() + "/customer/123/stream").accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_NDJSON))
+                .andExpect(content().string(asJsonString(first) + "\n" + asJsonString(second) + "\n"));
+    }
+
+    @Test
+    public void testStreamByCustomerId_Fail_Status404() throws Exception {
+        doThrow(EntityNotFoundException.class)
+                .when(customerService).get(123L);
+        mockMvc.perform(get(getUrl() + "/customer/123/stream"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("Data does not exist")));
+    }
+
     private static String getUrl() {
         return "/api/v1/orders";
     }
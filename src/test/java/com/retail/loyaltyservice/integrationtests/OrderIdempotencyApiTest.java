@@ -0,0 +1,109 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Retried order requests with the same Idempotency-Key are answered with the first order and award points once.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderIdempotencyApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepo;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testCreate_Retried_ReplaysFirstOrder() throws Exception {
+        Customer customer = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        String body = orderJson(customer, 120);
+        double replayed = meterRegistry.get("loyalty.orders.replayed").counter().count();
+
+        String first = mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", "pos-17-0001")
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.loyaltyPoints").value(90))
+                .andExpect(jsonPath("$.idempotencyKey").value("pos-17-0001"))
+                .andReturn().getResponse().getContentAsString();
+        String retried = mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", "pos-17-0001")
+                        .contentType(APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, retried);
+        assertEquals(1, orderRepo.findByCustomer(customer).size());
+        assertEquals(90, customerRepo.findById(customer.getId()).get().getLoyaltyPoints());
+        assertEquals(replayed + 1, meterRegistry.get("loyalty.orders.replayed").counter().count());
+    }
+
+    @Test
+    public void testCreate_KeyUnseenByFilter_ConfirmedByUniqueKey() throws Exception {
+        Customer customer = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        // As if created before a restart, the filter has not seen the key
+        Order saved = orderRepo.save(Order.builder().totalAmount(BigDecimal.valueOf(120)).loyaltyPoints(90)
+                .customer(customer).orderDate(LocalDate.of(2023, 3, 14)).idempotencyKey("pos-17-0002").build());
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", "pos-17-0002")
+                        .contentType(APPLICATION_JSON)
+                        .content(orderJson(customer, 120)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(saved.getId()));
+
+        assertEquals(1, orderRepo.findByCustomer(customer).size());
+        assertEquals(0, customerRepo.findById(customer.getId()).get().getLoyaltyPoints());
+    }
+
+    @Test
+    public void testCreate_KeyReusedForDifferentOrder_Status400() throws Exception {
+        Customer customer = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", "pos-17-0003")
+                        .contentType(APPLICATION_JSON)
+                        .content(orderJson(customer, 120)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/v1/orders")
+                        .header("Idempotency-Key", "pos-17-0003")
+                        .contentType(APPLICATION_JSON)
+                        .content(orderJson(customer, 75)))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, orderRepo.findByCustomer(customer).size());
+    }
+
+    private static String orderJson(Customer customer, int totalAmount) {
+        return "{\"totalAmount\":" + totalAmount + ",\"customer\":{\"id\":" + customer.getId()
+                + "},\"orderDate\":\"2023-03-14\"}";
+    }
+}
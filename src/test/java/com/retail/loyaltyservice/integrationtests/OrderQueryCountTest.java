@@ -0,0 +1,152 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL statements run by the order read endpoints against the real database, counted with Hibernate statistics. The
+ * count must not grow with the number of orders returned. Creating an order with a new idempotency key must not run
+ * more queries than without one.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OrderQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void testGetByCustomerId_StatementsIndependentOfOrders() throws Exception {
+        long oneOrder = statements(customerWithOrders(1), "/customer/%d", 1);
+        long manyOrders = statements(customerWithOrders(20), "/customer/%d", 20);
+
+        assertEquals(oneOrder, manyOrders);
+    }
+
+    @Test
+    public void testGetPageByCustomerId_StatementsIndependentOfOrders() throws Exception {
+        long oneOrder = statements(customerWithOrders(1), "/customer/%d/page?size=50", 1);
+        long manyOrders = statements(customerWithOrders(20), "/customer/%d/page?size=50", 20);
+
+        assertEquals(oneOrder, manyOrders);
+    }
+
+    @Test
+    public void testStreamByCustomerId_StatementsIndependentOfOrders() throws Exception {
+        long oneOrder = streamStatements(customerWithOrders(1));
+        long manyOrders = streamStatements(customerWithOrders(20));
+
+        assertEquals(oneOrder, manyOrders);
+    }
+
+    @Test
+    public void testGet_SingleStatement() throws Exception {
+        Long customerId = customerWithOrders(1);
+        long orderId = orderService.getByCustomerId(customerId).get(0).getId();
+        long before = statistics().getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/v1/orders/" + orderId).contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customer.name", is("John Doe")));
+
+        assertEquals(1, statistics().getPrepareStatementCount() - before);
+    }
+
+    private long statements(Long customerId, String path, int orders) throws Exception {
+        long before = statistics().getPrepareStatementCount();
+        mockMvc.perform(get("/api/v1/orders" + path.formatted(customerId)).contentType(APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$..customer.name", hasSize(orders)));
+        return statistics().getPrepareStatementCount() - before;
+    }
+
+    @Test
+    public void testCreate_NewIdempotencyKey_NoExtraQuery() throws Exception {
+        Long customerId = customerWithOrders(0);
+
+        long withoutKey = createQueries(customerId, null);
+        long withNewKey = createQueries(customerId, "pos-42-0001");
+
+        assertEquals(withoutKey, withNewKey);
+    }
+
+    private long createQueries(Long customerId, String idempotencyKey) throws Exception {
+        MockHttpServletRequestBuilder request = post("/api/v1/orders")
+                .contentType(APPLICATION_JSON)
+                .content("{\"totalAmount\":120,\"customer\":{\"id\":" + customerId
+                        + "},\"orderDate\":\"2023-03-14\"}");
+        if (idempotencyKey != null) {
+            request.header("Idempotency-Key", idempotencyKey);
+        }
+        long before = statistics().getQueryExecutionCount();
+        mockMvc.perform(request)
+                .andExpect(status().isCreated());
+        return statistics().getQueryExecutionCount() - before;
+    }
+
+    private long streamStatements(Long customerId) throws Exception {
+        long before = statistics().getPrepareStatementCount();
+        MvcResult result = mockMvc.perform(get("/api/v1/orders/customer/" + customerId + "/stream")
+                        .accept(APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        return statistics().getPrepareStatementCount() - before;
+    }
+
+    private Long customerWithOrders(int orders) {
+        Long customerId = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build())
+                .getId();
+        for (int i = 0; i < orders; i++) {
+            orderService.create(Order.builder()
+                    .totalAmount(BigDecimal.valueOf(120))
+                    .customer(Customer.builder().id(customerId).build())
+                    .orderDate(LocalDate.of(2023, 3, 14).plusDays(i))
+                    .build());
+        }
+        // Evicted so that both customers are read from the database, not one from the second-level cache
+        entityManagerFactory.getCache().evict(Customer.class);
+        return customerId;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
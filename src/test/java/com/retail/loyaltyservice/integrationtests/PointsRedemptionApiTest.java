@@ -0,0 +1,164 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PointsTransaction;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PointsTransactionRepository;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderService;
+import com.retail.loyaltyservice.service.PointsLedgerService;
+import com.retail.loyaltyservice.service.PointsRedemptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Redemptions against the real database, alone and racing orders of the same customer.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PointsRedemptionApiTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepo;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PointsRedemptionService pointsRedemptionService;
+
+    @Autowired
+    private PointsLedgerService pointsLedger;
+
+    @Autowired
+    private PointsTransactionRepository transactionRepo;
+
+    @Test
+    public void testRedeem_Success_Status200() throws Exception {
+        Long customerId = createCustomer(100);
+        // Read once, so that the cached balance must be evicted
+        mockMvc.perform(get("/api/v1/loyalty/" + customerId))
+                .andExpect(content().string("100"));
+
+        mockMvc.perform(post("/api/v1/loyalty/" + customerId + "/redemptions")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"points\":60}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.customerId").value(customerId))
+                .andExpect(jsonPath("$.points").value(60))
+                .andExpect(jsonPath("$.loyaltyPoints").value(40));
+
+        mockMvc.perform(get("/api/v1/loyalty/" + customerId))
+                .andExpect(content().string("40"));
+        assertEquals(40, pointsLedger.getBalance(customerId));
+        assertEquals(List.of(-60), transactionRepo.findAll().stream()
+                .filter(transaction -> transaction.getCustomerId().equals(customerId))
+                .filter(transaction -> transaction.getType() == PointsTransaction.Type.REDEEM)
+                .map(PointsTransaction::getPoints)
+                .toList());
+    }
+
+    @Test
+    public void testRedeem_MoreThanBalance_Status400() throws Exception {
+        Long customerId = createCustomer(50);
+
+        mockMvc.perform(post("/api/v1/loyalty/" + customerId + "/redemptions")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"points\":60}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(50, customerRepo.findById(customerId).get().getLoyaltyPoints());
+        assertEquals(50, pointsLedger.getBalance(customerId));
+    }
+
+    @Test
+    public void testRedeem_CustomerNotFound_Status404() throws Exception {
+        mockMvc.perform(post("/api/v1/loyalty/" + Long.MAX_VALUE + "/redemptions")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"points\":60}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testRedeem_ParallelWithOrders_NeverBelowZero() throws Exception {
+        Long customerId = createCustomer(500);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> redemptions = new ArrayList<>();
+        List<Future<?>> orders = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            if (i % 4 == 0) {
+                // 120 earns 90 points
+                orders.add(executor.submit(() -> {
+                    start.await();
+                    return orderService.create(Order.builder()
+                            .totalAmount(BigDecimal.valueOf(120))
+                            .customer(Customer.builder().id(customerId).build())
+                            .orderDate(LocalDate.of(2023, 3, 14))
+                            .build());
+                }));
+            } else {
+                redemptions.add(executor.submit(() -> {
+                    start.await();
+                    return pointsRedemptionService.redeem(customerId, 40);
+                }));
+            }
+        }
+        start.countDown();
+        for (Future<?> order : orders) {
+            order.get();
+        }
+        int redeemed = 0;
+        for (Future<?> redemption : redemptions) {
+            try {
+                redemption.get();
+                redeemed++;
+            } catch (ExecutionException ex) {
+                assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+            }
+        }
+        executor.shutdown();
+
+        int balance = customerRepo.findById(customerId).get().getLoyaltyPoints();
+        assertTrue(balance >= 0, "balance: " + balance);
+        assertEquals(500 + 100 * 90 - redeemed * 40, balance);
+        assertEquals(balance, pointsLedger.getBalance(customerId));
+    }
+
+    private Long createCustomer(int loyaltyPoints) {
+        return customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala")
+                .loyaltyPoints(loyaltyPoints).build()).getId();
+    }
+}
@@ -0,0 +1,61 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.LoyaltyServiceApplication;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.service.LoyaltyService;
+import com.retail.loyaltyservice.service.OrderService;
+import com.retail.loyaltyservice.service.PointsLedgerService;
+import com.retail.loyaltyservice.service.ReactiveLoyaltyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Prod profile against a file database in a temporary directory, checking that the migrations create a schema the
+ * entities validate against and that balances survive a restart.
+ */
+public class ProdProfileTest {
+
+    @TempDir
+    private Path storageDir;
+
+    @Test
+    public void testRestart_BalancesKept() {
+        Long customerId;
+        try (ConfigurableApplicationContext context = start()) {
+            customerId = context.getBean(CustomerRepository.class)
+                    .save(Customer.builder().name("John Doe").address("Cochin, Kerala").build())
+                    .getId();
+            context.getBean(OrderService.class).create(Order.builder()
+                    .totalAmount(BigDecimal.valueOf(120))
+                    .customer(Customer.builder().id(customerId).build())
+                    .orderDate(LocalDate.of(2023, 3, 14))
+                    .build());
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertEquals(90, context.getBean(LoyaltyService.class).getLoyaltyPoints(customerId));
+            assertEquals(90, context.getBean(ReactiveLoyaltyService.class).getLoyaltyPoints(customerId).block());
+            assertEquals(90, context.getBean(PointsLedgerService.class).getBalance(customerId));
+            assertEquals("7", context.getBean(JdbcTemplate.class).queryForObject(
+                    "SELECT MAX(\"version\") FROM \"flyway_schema_history\" WHERE \"success\"", String.class));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(LoyaltyServiceApplication.class)
+                .profiles("prod")
+                .properties("server.port=0")
+                .run("--loyalty.service.storage.path=" + storageDir.resolve("loyalty"));
+    }
+}
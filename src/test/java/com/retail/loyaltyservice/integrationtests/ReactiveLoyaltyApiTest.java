@@ -0,0 +1,113 @@
+package com.retail.loyaltyservice.integrationtests;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.service.CustomerService;
+import com.retail.loyaltyservice.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Reactive loyalty API against the real database, checking it answers the same as the MVC endpoints.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ReactiveLoyaltyApiTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    public void testGetLoyaltyPoints_Success_SameAsMvc() throws Exception {
+        Customer customer = createCustomerWithOrders();
+
+        String reactive = perform("/api/v1/reactive/loyalty/" + customer.getId());
+
+        assertEquals("230", reactive);
+        assertEquals(mockMvc.perform(get("/api/v1/loyalty/" + customer.getId()))
+                .andReturn().getResponse().getContentAsString(), reactive);
+    }
+
+    @Test
+    public void testGetLoyaltySummary_Success_SameAsMvc() throws Exception {
+        Customer customer = createCustomerWithOrders();
+        String query = "/summary?customerId=" + customer.getId() + "&startDate=2023-01-15&endDate=2023-03-20";
+
+        String reactive = perform("/api/v1/reactive/loyalty" + query);
+
+        assertEquals(mockMvc.perform(get("/api/v1/loyalty" + query))
+                .andReturn().getResponse().getContentAsString(), reactive);
+        assertTrue(reactive.contains("\"monthlyLoyaltyPoints\":[{\"month\":1,\"year\":2023,\"points\":90},"
+                + "{\"month\":2,\"year\":2023,\"points\":25}]"), reactive);
+    }
+
+    @Test
+    public void testGetLoyaltyPoints_Fail_Status404() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/loyalty/987654"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(APPLICATION_JSON))
+                .andExpect(jsonPath("$.message", is("Data does not exist")));
+    }
+
+    @Test
+    public void testGetLoyaltySummary_NoPoints_Status404() throws Exception {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        MvcResult result = mockMvc.perform(get("/api/v1/reactive/loyalty/summary?customerId=" + customer.getId()
+                + "&startDate=2023-01-01&endDate=2023-12-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotFound());
+    }
+
+    private String perform(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private Customer createCustomerWithOrders() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        // partial January, whole February from the rollup and partial March
+        createOrder(customer, 120, LocalDate.of(2023, 1, 10));
+        createOrder(customer, 120, LocalDate.of(2023, 1, 20));
+        createOrder(customer, 75, LocalDate.of(2023, 2, 14));
+        createOrder(customer, 75, LocalDate.of(2023, 3, 25));
+        return customer;
+    }
+
+    private void createOrder(Customer customer, int amount, LocalDate orderDate) {
+        orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(amount))
+                .customer(Customer.builder().id(customer.getId()).build())
+                .orderDate(orderDate)
+                .build());
+    }
+}
@@ -0,0 +1,64 @@
+package com.retail.loyaltyservice.repository;
+
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class CustomerMonthlyPointsRepositoryTest {
+
+    @Autowired
+    private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    public void testAddPoints_SameMonth_Accumulates() {
+        monthlyPointsRepo.addPoints(1L, YearMonth.of(2023, 1), 50);
+        monthlyPointsRepo.addPoints(1L, YearMonth.of(2023, 1), 90);
+        entityManager.clear();
+
+        List<CustomerMonthlyPoints> rollups = monthlyPointsRepo.findByCustomerIdAndPeriodBetweenOrderByPeriod(1L,
+                202301, 202301);
+
+        assertEquals(1, rollups.size());
+        assertEquals(140, rollups.get(0).getPoints());
+        assertEquals(YearMonth.of(2023, 1), rollups.get(0).toYearMonth());
+    }
+
+    @Test
+    public void testFindByPeriodRange_OrderedAndBounded() {
+        monthlyPointsRepo.addPoints(1L, YearMonth.of(2023, 3), 10);
+        monthlyPointsRepo.addPoints(1L, YearMonth.of(2022, 12), 30);
+        monthlyPointsRepo.addPoints(1L, YearMonth.of(2023, 1), 20);
+        monthlyPointsRepo.addPoints(1L, YearMonth.of(2023, 4), 5);
+        monthlyPointsRepo.addPoints(2L, YearMonth.of(2023, 1), 70);
+        entityManager.clear();
+
+        List<CustomerMonthlyPoints> rollups = monthlyPointsRepo.findByCustomerIdAndPeriodBetweenOrderByPeriod(1L,
+                CustomerMonthlyPoints.periodOf(YearMonth.of(2022, 12)),
+                CustomerMonthlyPoints.periodOf(YearMonth.of(2023, 3)));
+
+        assertEquals(3, rollups.size());
+        assertEquals(202212, rollups.get(0).getPeriod());
+        assertEquals(202301, rollups.get(1).getPeriod());
+        assertEquals(202303, rollups.get(2).getPeriod());
+    }
+
+    @Test
+    public void testFindByPeriodRange_NoRollups() {
+        List<CustomerMonthlyPoints> rollups = monthlyPointsRepo.findByCustomerIdAndPeriodBetweenOrderByPeriod(1L,
+                202301, 202312);
+
+        assertTrue(rollups.isEmpty());
+    }
+}
@@ -1,15 +1,19 @@
 package com.retail.loyaltyservice.repository;
 
 import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.MonthlyPointsAggregate;
 import com.retail.loyaltyservice.model.Order;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -26,7 +30,7 @@ public class OrderRepositoryTest {
     public void testSave_And_FindById_Success() {
         Customer customerCreated = customerRepo
                 .save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
-        Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 49, customerCreated, LocalDate.now());
+        Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 49, customerCreated, LocalDate.now(), null, null);
         Order savedOrder = orderRepo.save(orderToCreate);
         Optional<Order> order = orderRepo.findById(savedOrder.getId());
 
@@ -47,7 +51,7 @@ public class OrderRepositoryTest {
     public void testFindByCustomer_Success() {
         Customer customerCreated = customerRepo
                 .save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
-        Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 49, customerCreated, LocalDate.now());
+        Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 49, customerCreated, LocalDate.now(), null, null);
         orderRepo.save(orderToCreate);
         List<Order> order = orderRepo.findByCustomer(customerCreated);
 
@@ -69,4 +73,63 @@ public class OrderRepositoryTest {
 
         assertTrue(foundEntity.isEmpty());
     }
+
+    @Test
+    public void testAggregateMonthlyLoyaltyPoints_WithinDateRange() {
+        Customer customerCreated = customerRepo
+                .save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        Customer otherCustomer = customerRepo
+                .save(Customer.builder().name("Jane Doe").address("Cochin, Kerala").build());
+        orderRepo.save(new Order(0L, BigDecimal.valueOf(120), 90, customerCreated, LocalDate.of(2022, 12, 31), null, null));
+        orderRepo.save(new Order(0L, BigDecimal.valueOf(120), 90, customerCreated, LocalDate.of(2023, 1, 10), null, null));
+        orderRepo.save(new Order(0L, BigDecimal.valueOf(100), 50, customerCreated, LocalDate.of(2023, 1, 20), null, null));
+        orderRepo.save(new Order(0L, BigDecimal.valueOf(75), 25, customerCreated, LocalDate.of(2023, 2, 1), null, null));
+        orderRepo.save(new Order(0L, BigDecimal.valueOf(75), 25, customerCreated, LocalDate.of(2023, 2, 2), null, null));
+        orderRepo.save(new Order(0L, BigDecimal.valueOf(120), 90, otherCustomer, LocalDate.of(2023, 1, 10), null, null));
+
+        List<MonthlyPointsAggregate> aggregates = orderRepo.aggregateMonthlyLoyaltyPoints(customerCreated.getId(),
+                LocalDate.of(2023, 1, 1), LocalDate.of(2023, 2, 1));
+
+        assertEquals(2, aggregates.size());
+        assertEquals(2023, aggregates.get(0).getYear());
+        assertEquals(1, aggregates.get(0).getMonth());
+        assertEquals(140, aggregates.get(0).getPoints());
+        assertEquals(2, aggregates.get(1).getMonth());
+        assertEquals(25, aggregates.get(1).getPoints());
+        assertTrue(orderRepo.aggregateMonthlyLoyaltyPoints(customerCreated.getId(), LocalDate.of(2023, 3, 1),
+                LocalDate.of(2023, 3, 31)).isEmpty());
+    }
+
+    @Test
+    public void testKeysetPages_UndatedFirst_ThenByOrderDateAndId() {
+        Customer customerCreated = customerRepo
+                .save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        Order undated = orderRepo.save(new Order(0L, BigDecimal.valueOf(10), 0, customerCreated, null, null, null));
+        Order march = orderRepo.save(new Order(0L, BigDecimal.valueOf(20), 0, customerCreated, LocalDate.of(2023, 3, 1), null, null));
+        Order januaryFirst = orderRepo
+                .save(new Order(0L, BigDecimal.valueOf(30), 0, customerCreated, LocalDate.of(2023, 1, 1), null, null));
+        Order januarySecond = orderRepo
+                .save(new Order(0L, BigDecimal.valueOf(40), 0, customerCreated, LocalDate.of(2023, 1, 1), null, null));
+        PageRequest pageable = PageRequest.ofSize(2);
+
+        List<Order> firstPage = orderRepo.findFirstPageByCustomerId(customerCreated.getId(), pageable);
+        assertEquals(List.of(undated.getId(), januaryFirst.getId()), ids(firstPage));
+
+        List<Order> afterUndated = orderRepo.findPageByCustomerIdAfterUndated(customerCreated.getId(),
+                undated.getId(), pageable);
+        assertEquals(List.of(januaryFirst.getId(), januarySecond.getId()), ids(afterUndated));
+
+        List<Order> secondPage = orderRepo.findPageByCustomerIdAfter(customerCreated.getId(),
+                LocalDate.of(2023, 1, 1), januaryFirst.getId(), pageable);
+        assertEquals(List.of(januarySecond.getId(), march.getId()), ids(secondPage));
+
+        try (Stream<Order> orders = orderRepo.streamByCustomerId(customerCreated.getId())) {
+            assertEquals(List.of(undated.getId(), januaryFirst.getId(), januarySecond.getId(), march.getId()),
+                    orders.map(Order::getId).collect(Collectors.toList()));
+        }
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toList());
+    }
 }
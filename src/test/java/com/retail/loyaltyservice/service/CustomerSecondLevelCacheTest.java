@@ -0,0 +1,81 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Second-level cache of Customer entities against the real database, checking that writes are visible to the next
+ * read.
+ */
+@SpringBootTest
+class CustomerSecondLevelCacheTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testGet_RepeatedReads_ServedFromCache() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        customerService.get(customer.getId());
+        long hits = customerRegion().getHitCount();
+
+        customerService.get(customer.getId());
+        customerService.get(customer.getId());
+
+        assertEquals(hits + 2, customerRegion().getHitCount());
+        assertNotNull(meterRegistry.get("hibernate.second.level.cache.hit.ratio")
+                .tag("region", "customers").gauge());
+    }
+
+    @Test
+    public void testGet_AfterOrderCreated_NotStale() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        assertEquals(0, customerService.get(customer.getId()).getLoyaltyPoints());
+
+        orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customer.getId()).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .build());
+
+        assertEquals(90, customerService.get(customer.getId()).getLoyaltyPoints());
+    }
+
+    @Test
+    public void testGet_AfterCustomerUpdated_NotStale() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        assertEquals("Cochin, Kerala", customerService.get(customer.getId()).getAddress());
+
+        customer.setAddress("Kochi, Kerala");
+        customerService.update(customer);
+
+        assertEquals("Kochi, Kerala", customerService.get(customer.getId()).getAddress());
+    }
+
+    private CacheRegionStatistics customerRegion() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics("customers");
+    }
+}
@@ -18,12 +18,15 @@ import static org.mockito.Mockito.*;
 class CustomerServiceTest {
     private CustomerRepository customerRepo;
 
+    private PointsLedgerService pointsLedger;
+
     private CustomerService customerService;
 
     @BeforeEach
     public void setUp() {
         customerRepo = mock(CustomerRepository.class);
-        customerService = new CustomerService(customerRepo);
+        pointsLedger = mock(PointsLedgerService.class);
+        customerService = new CustomerService(customerRepo, pointsLedger, new CustomerVersions());
     }
 
     @Test
@@ -37,6 +40,7 @@ class CustomerServiceTest {
         Customer savedCustomer = customerService.create(customer);
 
         verify(customerRepo).save(customer);
+        verify(pointsLedger).openBalance(customer);
         assertThat(savedCustomer.getId() == customer.getId());
         assertThat(savedCustomer.getName() == customer.getName());
     }
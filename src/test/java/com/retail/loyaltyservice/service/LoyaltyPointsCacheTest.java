@@ -0,0 +1,95 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Balance cache against the real database, checking that writes are visible to the next read.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class LoyaltyPointsCacheTest {
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetLoyaltyPoints_RepeatedReads_ServedFromCache() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").loyaltyPoints(40).build());
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        assertEquals(40, loyaltyService.getLoyaltyPoints(customer.getId()));
+        assertEquals(40, loyaltyService.getLoyaltyPoints(customer.getId()));
+        assertEquals(40, loyaltyService.getLoyaltyPoints(customer.getId()));
+
+        assertEquals(misses + 1, cacheGets("miss"));
+        assertEquals(hits + 2, cacheGets("hit"));
+    }
+
+    @Test
+    public void testGetLoyaltyPoints_AfterOrderCreated_NotStale() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        assertEquals(0, loyaltyService.getLoyaltyPoints(customer.getId()));
+
+        orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customer.getId()).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .build());
+
+        assertEquals(90, loyaltyService.getLoyaltyPoints(customer.getId()));
+    }
+
+    @Test
+    public void testGetLoyaltyPoints_AfterCustomerUpdated_NotStale() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").loyaltyPoints(40).build());
+        assertEquals(40, loyaltyService.getLoyaltyPoints(customer.getId()));
+
+        customer.setLoyaltyPoints(15);
+        customerService.update(customer);
+
+        assertEquals(15, loyaltyService.getLoyaltyPoints(customer.getId()));
+    }
+
+    @Test
+    public void testCacheMetrics_ExposedThroughActuator() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:loyaltyPoints"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("cache.gets")));
+        mockMvc.perform(get("/actuator/metrics/cache.evictions").param("tag", "cache:loyaltyPoints"))
+                .andExpect(status().isOk());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "loyaltyPoints").tag("result", result)
+                .functionCounter().count();
+    }
+}
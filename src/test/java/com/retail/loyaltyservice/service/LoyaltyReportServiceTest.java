@@ -0,0 +1,166 @@
+package com.retail.loyaltyservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerLoyaltyReport;
+import com.retail.loyaltyservice.model.LoyaltyReportRequest;
+import com.retail.loyaltyservice.model.LoyaltySummary;
+import com.retail.loyaltyservice.model.MonthlyLoyaltyPoints;
+import com.retail.loyaltyservice.model.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Multi-customer reports against the real database, with chunks of two customers so that every report spans several
+ * chunks aggregated in parallel.
+ */
+@SpringBootTest(properties = { "loyalty.service.report.chunk_size=2", "loyalty.service.report.parallelism=3" })
+@AutoConfigureMockMvc
+class LoyaltyReportServiceTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2023, 1, 15);
+
+    private static final LocalDate END_DATE = LocalDate.of(2023, 6, 10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private LoyaltyReportService loyaltyReportService;
+
+    @Test
+    public void testReport_CustomerIds_MatchesSummaries() {
+        List<Long> customerIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            customerIds.add(customerWithOrders(i + 2));
+        }
+        Long withoutOrders = createCustomer();
+        List<Long> requested = new ArrayList<>(customerIds);
+        requested.add(withoutOrders);
+        requested.add(customerIds.get(0));
+        requested.add(999999L);
+        Collections.shuffle(requested);
+
+        List<CustomerLoyaltyReport> reports = new ArrayList<>();
+        loyaltyReportService.report(LoyaltyReportRequest.builder()
+                .customerIds(requested)
+                .startDate(START_DATE)
+                .endDate(END_DATE)
+                .build(), reports::add);
+
+        Map<Long, CustomerLoyaltyReport> byCustomer = reports.stream()
+                .collect(Collectors.toMap(CustomerLoyaltyReport::getCustomerId, Function.identity()));
+        assertEquals(customerIds.size(), reports.size());
+        for (Long customerId : customerIds) {
+            LoyaltySummary summary = loyaltyService.getLoyaltySummary(customerId, START_DATE, END_DATE);
+            CustomerLoyaltyReport report = byCustomer.get(customerId);
+            assertEquals(months(summary.getMonthlyLoyaltyPoints()), months(report.getMonthlyLoyaltyPoints()));
+            assertEquals(summary.getMonthlyLoyaltyPoints().stream().mapToLong(MonthlyLoyaltyPoints::getPoints).sum(),
+                    report.getTotalPoints());
+        }
+    }
+
+    @Test
+    public void testReport_AllCustomers_StreamsNdjson() throws Exception {
+        Long first = customerWithOrders(2);
+        Long second = customerWithOrders(3);
+
+        MvcResult result = mockMvc.perform(post("/api/v1/loyalty/report")
+                        .contentType(APPLICATION_JSON)
+                        .accept(APPLICATION_NDJSON)
+                        .content("{\"allCustomers\":true,\"startDate\":\"2023-01-15\",\"endDate\":\"2023-06-10\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Map<Long, Long> totals = new HashMap<>();
+        for (String line : body.split("\n")) {
+            CustomerLoyaltyReport report = objectMapper.readValue(line, CustomerLoyaltyReport.class);
+            assertNull(totals.put(report.getCustomerId(), report.getTotalPoints()));
+        }
+        assertEquals(272L, totals.get(first));
+        assertEquals(456L, totals.get(second));
+    }
+
+    @Test
+    public void testReport_InvalidRequest_BadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/loyalty/report")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"customerIds\":[1],\"allCustomers\":true,"
+                                + "\"startDate\":\"2023-01-15\",\"endDate\":\"2023-06-10\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/loyalty/report")
+                        .contentType(APPLICATION_JSON)
+                        .content("{\"customerIds\":[1],\"startDate\":\"2023-06-10\",\"endDate\":\"2023-01-15\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * A customer with orders on the 10th and the 20th of each month from January 2023, so the partial first and last
+     * month of the range include some orders and exclude others.
+     */
+    private Long customerWithOrders(int months) {
+        Long customerId = createCustomer();
+        for (int month = 0; month < months; month++) {
+            orderService.create(Order.builder()
+                    .totalAmount(BigDecimal.valueOf(120 + month))
+                    .customer(Customer.builder().id(customerId).build())
+                    .orderDate(LocalDate.of(2023, 1, 10).plusMonths(month))
+                    .build());
+            orderService.create(Order.builder()
+                    .totalAmount(BigDecimal.valueOf(120))
+                    .customer(Customer.builder().id(customerId).build())
+                    .orderDate(LocalDate.of(2023, 1, 20).plusMonths(month))
+                    .build());
+        }
+        return customerId;
+    }
+
+    private Long createCustomer() {
+        return customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build())
+                .getId();
+    }
+
+    private static List<String> months(List<MonthlyLoyaltyPoints> monthlyLoyaltyPoints) {
+        return monthlyLoyaltyPoints.stream()
+                .map(points -> points.getYear() + "-" + points.getMonth() + ":" + points.getPoints())
+                .toList();
+    }
+}
@@ -1,8 +1,10 @@
 package com.retail.loyaltyservice.service;
 
 import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
 import com.retail.loyaltyservice.model.LoyaltySummary;
-import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.MonthlyPointsAggregate;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
 import com.retail.loyaltyservice.repository.CustomerRepository;
 import com.retail.loyaltyservice.repository.OrderRepository;
 import com.retail.loyaltyservice.util.LoyaltyPointsUtil;
@@ -13,12 +15,12 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -28,13 +30,19 @@ class LoyaltyServiceTest {
 
     private OrderRepository orderRepo;
 
+    private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private PointsAccumulator pointsAccumulator;
+
     private LoyaltyService loyaltyservice;
 
     @BeforeEach
     public void setUp() {
         customerRepo = mock(CustomerRepository.class);
         orderRepo = mock(OrderRepository.class);
-        loyaltyservice = new LoyaltyService(customerRepo, orderRepo);
+        monthlyPointsRepo = mock(CustomerMonthlyPointsRepository.class);
+        pointsAccumulator = mock(PointsAccumulator.class);
+        loyaltyservice = new LoyaltyService(customerRepo, orderRepo, monthlyPointsRepo, pointsAccumulator);
     }
 
     @Test
@@ -54,17 +62,27 @@ class LoyaltyServiceTest {
     @Test
     public void testGetLoyaltyByCustomerId_Success() {
         Long customerId = 1L;
-        Optional<Customer> expectedResult = Optional
-                .of(new Customer(customerId, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 56));
-
-        doReturn(expectedResult)
+        doReturn(Optional.of(56))
                 .when(customerRepo)
-                .findById(anyLong());
+                .findLoyaltyPointsById(anyLong());
         int loyaltyPointsActual = loyaltyservice.getLoyaltyPoints(customerId);
-        verify(customerRepo).findById(customerId);
+        verify(customerRepo).findLoyaltyPointsById(customerId);
         assertEquals(56, loyaltyPointsActual);
     }
 
+    @Test
+    public void testGetLoyaltyByCustomerId_WriteBehind_IncludesPendingPoints() {
+        Long customerId = 1L;
+        doReturn(Optional.of(56))
+                .when(customerRepo)
+                .findLoyaltyPointsById(anyLong());
+        pointsAccumulator = new PointsAccumulator(customerRepo, monthlyPointsRepo, new CustomerVersions(), null, true);
+        loyaltyservice = new LoyaltyService(customerRepo, orderRepo, monthlyPointsRepo, pointsAccumulator);
+        pointsAccumulator.add(customerId, null, 90);
+
+        assertEquals(146, loyaltyservice.getLoyaltyPoints(customerId));
+    }
+
     @Test
     public void testGetLoyaltySummary_Success() {
         Long customerId = 1L;
@@ -75,19 +93,50 @@ class LoyaltyServiceTest {
         doReturn(expectedResult)
                 .when(customerRepo)
                 .findById(anyLong());
-        Order order1 = new Order(1L, BigDecimal.valueOf(100), 50, expectedResult.get(), LocalDate.of(2023, 01,15));
-        Order order2 = new Order(2L, BigDecimal.valueOf(120), 90, expectedResult.get(), LocalDate.of(2023, 01,15));
-        List<Order> expectedOrders = Arrays.asList(order1,order2);
-        doReturn(expectedOrders)
-                .when(orderRepo)
-                .findByCustomer(any());
+        CustomerMonthlyPoints january = new CustomerMonthlyPoints(1L, customerId, 202301, 140);
+        doReturn(Arrays.asList(january))
+                .when(monthlyPointsRepo)
+                .findByCustomerIdAndPeriodBetweenOrderByPeriod(anyLong(), anyInt(), anyInt());
 
         LoyaltySummary loyaltySummary = loyaltyservice.getLoyaltySummary(customerId, startDate, endDate);
-        verify(orderRepo).findByCustomer(any());
+        verify(monthlyPointsRepo).findByCustomerIdAndPeriodBetweenOrderByPeriod(customerId, 202301, 202301);
+        verify(orderRepo).aggregateMonthlyLoyaltyPoints(customerId, endDate, endDate);
+        verify(orderRepo, never()).findByCustomer(any());
         assertThat(loyaltySummary.getMonthlyLoyaltyPoints().size() > 0);
         assertEquals(loyaltySummary.getMonthlyLoyaltyPoints().get(0).getPoints(), 140);
     }
 
+    @Test
+    public void testGetLoyaltySummary_PartialMonths_SummedFromOrders() {
+        Long customerId = 1L;
+        LocalDate startDate = LocalDate.of(2023, 01, 15);
+        LocalDate endDate = LocalDate.of(2023, 03, 10);
+        Optional<Customer> expectedResult = Optional
+                .of(new Customer(customerId, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 270));
+        doReturn(expectedResult)
+                .when(customerRepo)
+                .findById(anyLong());
+        doReturn(Arrays.asList(new CustomerMonthlyPoints(1L, customerId, 202302, 100)))
+                .when(monthlyPointsRepo)
+                .findByCustomerIdAndPeriodBetweenOrderByPeriod(customerId, 202302, 202302);
+        doReturn(Arrays.asList(aggregate(2023, 1, 40)))
+                .when(orderRepo)
+                .aggregateMonthlyLoyaltyPoints(customerId, startDate, LocalDate.of(2023, 01, 31));
+        doReturn(Arrays.asList(aggregate(2023, 3, 10)))
+                .when(orderRepo)
+                .aggregateMonthlyLoyaltyPoints(customerId, LocalDate.of(2023, 03, 01), endDate);
+
+        LoyaltySummary loyaltySummary = loyaltyservice.getLoyaltySummary(customerId, startDate, endDate);
+
+        assertEquals(3, loyaltySummary.getMonthlyLoyaltyPoints().size());
+        assertEquals(1, loyaltySummary.getMonthlyLoyaltyPoints().get(0).getMonth());
+        assertEquals(40, loyaltySummary.getMonthlyLoyaltyPoints().get(0).getPoints());
+        assertEquals(2, loyaltySummary.getMonthlyLoyaltyPoints().get(1).getMonth());
+        assertEquals(100, loyaltySummary.getMonthlyLoyaltyPoints().get(1).getPoints());
+        assertEquals(3, loyaltySummary.getMonthlyLoyaltyPoints().get(2).getMonth());
+        assertEquals(10, loyaltySummary.getMonthlyLoyaltyPoints().get(2).getPoints());
+    }
+
     @Test
     public void testGetLoyaltySummary_CustomerNotFound_Exception_Fail() {
         Long customerId = 1L;
@@ -124,4 +173,24 @@ class LoyaltyServiceTest {
 
         assertTrue(actualMessage.contains(expectedMessage));
     }
-}
\ No newline at end of file
+
+    private static MonthlyPointsAggregate aggregate(int year, int month, long points) {
+        return new MonthlyPointsAggregate() {
+
+            @Override
+            public int getYear() {
+                return year;
+            }
+
+            @Override
+            public int getMonth() {
+                return month;
+            }
+
+            @Override
+            public long getPoints() {
+                return points;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderBatchSummary;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ OrderIngestionService.class, PointsLedgerService.class, CustomerVersions.class, LoyaltyMetrics.class,
+        SimpleMeterRegistry.class, EarningRuleEngine.class })
+class OrderIngestionServiceTest {
+
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private CustomerRepository customerRepo;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    public void testCreateAll_Success() {
+        Customer john = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        Customer jane = customerRepo.save(Customer.builder().name("Jane Doe").address("Cochin, Kerala")
+                .loyaltyPoints(10).build());
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            Customer customer = i % 2 == 0 ? john : jane;
+            orders.add(Order.builder()
+                    .totalAmount(BigDecimal.valueOf(120))
+                    .customer(Customer.builder().id(customer.getId()).build())
+                    .orderDate(LocalDate.of(2023, 1 + i % 3, 10))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        OrderBatchSummary summary = orderIngestionService.createAll(orders);
+
+        assertEquals(120, summary.getOrdersCreated());
+        assertEquals(2, summary.getCustomersUpdated());
+        assertEquals(120 * 90, summary.getPointsAwarded());
+        // one customer lookup, sequence calls, batched inserts and one update per customer and month
+        assertTrue(statistics.getPrepareStatementCount() < 30,
+                "statements prepared: " + statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        assertEquals(120, orderRepo.count());
+        assertEquals(60 * 90, customerRepo.findById(john.getId()).get().getLoyaltyPoints());
+        assertEquals(10 + 60 * 90, customerRepo.findById(jane.getId()).get().getLoyaltyPoints());
+        List<CustomerMonthlyPoints> johnMonthly = monthlyPointsRepo
+                .findByCustomerIdAndPeriodBetweenOrderByPeriod(john.getId(), 202301, 202303);
+        assertEquals(3, johnMonthly.size());
+        assertEquals(60 * 90, johnMonthly.stream().mapToLong(CustomerMonthlyPoints::getPoints).sum());
+    }
+
+    @Test
+    public void testCreateAll_CustomerNotFound_Exception_Fail() {
+        Customer john = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        List<Order> orders = Arrays.asList(
+                Order.builder().totalAmount(BigDecimal.valueOf(120)).customer(john).build(),
+                Order.builder().totalAmount(BigDecimal.valueOf(120)).customer(Customer.builder().id(-1L).build())
+                        .build());
+
+        Exception exception = assertThrows(EntityNotFoundException.class, () -> {
+            orderIngestionService.createAll(orders);
+        });
+
+        assertTrue(exception.getMessage().contains("Customers not found for given Ids: [-1]"));
+    }
+
+    @Test
+    public void testCreateAll_CustomerMissing_Exception_Fail() {
+        List<Order> orders = Arrays.asList(Order.builder().totalAmount(BigDecimal.valueOf(120)).build());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            orderIngestionService.createAll(orders);
+        });
+    }
+}
@@ -0,0 +1,136 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.OrderLogOffsetRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Order log ingestion mode against the real database. The scheduled applier is pushed out of the way so that the
+ * test decides when the log is applied.
+ */
+@SpringBootTest(properties = { "loyalty.service.order_log.enabled=true",
+        "loyalty.service.order_log.apply_interval_ms=3600000" })
+@AutoConfigureMockMvc
+class OrderLogApplierTest {
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderIngestionService orderIngestionService;
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private OrderLogOffsetRepository offsetRepo;
+
+    @Autowired
+    private OrderLog orderLog;
+
+    @Autowired
+    private OrderLogApplier orderLogApplier;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void orderLogDirectory(DynamicPropertyRegistry registry) {
+        registry.add("loyalty.service.order_log.directory", directory::toString);
+    }
+
+    @Test
+    public void testCreate_AcceptedIntoLogThenAppliedOnce() throws Exception {
+        Long customerId = createCustomer();
+
+        mockMvc.perform(post("/api/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"totalAmount\":120,\"customer\":{\"id\":" + customerId + "},\"orderDate\":\"2023-03-14\"}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.loyaltyPoints").value(90));
+        assertEquals(0, loyaltyService.getLoyaltyPoints(customerId));
+        assertEquals(0, orderRepo.findByCustomer(Customer.builder().id(customerId).build()).size());
+
+        orderLogApplier.apply();
+        orderLogApplier.apply();
+
+        assertEquals(90, loyaltyService.getLoyaltyPoints(customerId));
+        assertEquals(1, orderRepo.findByCustomer(Customer.builder().id(customerId).build()).size());
+        assertEquals(orderLog.getDurableOffset(), offsetRepo.findCommittedOffset(OrderLog.NAME));
+    }
+
+    @Test
+    public void testCreate_UnknownCustomer_NotFound() throws Exception {
+        long durableOffset = orderLog.getDurableOffset();
+
+        mockMvc.perform(post("/api/v1/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"totalAmount\":120,\"customer\":{\"id\":999999}}"))
+                .andExpect(status().isNotFound());
+
+        assertEquals(durableOffset, orderLog.getDurableOffset());
+    }
+
+    @Test
+    public void testApply_AfterRestart_ResumesFromCommittedOffset() {
+        Long customerId = createCustomer();
+        orderLogApplier.apply();
+        orderService.accept(order(customerId));
+        orderService.accept(order(customerId));
+
+        // A log and applier opened on the same directory, as after a restart with records not yet applied
+        OrderLog reopened = new OrderLog(offsetRepo, true, directory, 67108864, OrderLog.FsyncPolicy.PER_WRITE);
+        assertEquals(orderLog.getDurableOffset(), reopened.getDurableOffset());
+        new OrderLogApplier(reopened, offsetRepo, orderIngestionService, transactionManager, 1).apply();
+        orderLogApplier.apply();
+
+        assertEquals(180, loyaltyService.getLoyaltyPoints(customerId));
+        assertEquals(2, orderRepo.findByCustomer(Customer.builder().id(customerId).build()).size());
+        assertEquals(reopened.getDurableOffset(), offsetRepo.findCommittedOffset(OrderLog.NAME));
+    }
+
+    private Long createCustomer() {
+        return customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala").build())
+                .getId();
+    }
+
+    private static Order order(Long customerId) {
+        return Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customerId).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .build();
+    }
+}
@@ -0,0 +1,211 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.repository.OrderLogOffsetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderLogTest {
+
+    @TempDir
+    private Path directory;
+
+    private OrderLogOffsetRepository offsetRepo;
+
+    @BeforeEach
+    public void setUp() {
+        offsetRepo = mock(OrderLogOffsetRepository.class);
+    }
+
+    @Test
+    public void testAppend_ReadReturnsDurableRecords() {
+        OrderLog orderLog = open(1024, OrderLog.FsyncPolicy.PER_WRITE);
+
+        assertEquals(0, orderLog.append(1L, new BigDecimal("120.50"), LocalDate.of(2023, 3, 14), "grocery"));
+        assertEquals(1, orderLog.append(2L, BigDecimal.valueOf(45), null, null));
+
+        List<OrderLog.Entry> entries = orderLog.read(0, 10);
+        assertEquals(List.of(new OrderLog.Entry(0, 1L, new BigDecimal("120.50"), LocalDate.of(2023, 3, 14),
+                "grocery"), new OrderLog.Entry(1, 2L, BigDecimal.valueOf(45), null, null)), entries);
+        assertEquals(List.of(entries.get(1)), orderLog.read(1, 10));
+        assertEquals(List.of(), orderLog.read(2, 10));
+        assertEquals(2, orderLog.getDurableOffset());
+    }
+
+    @Test
+    public void testAppend_AmountOutOfRange_Exception() {
+        OrderLog orderLog = open(1024, OrderLog.FsyncPolicy.PER_WRITE);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> orderLog.append(1L, new BigDecimal("1e40").setScale(2), null, null));
+        assertEquals(0, orderLog.getDurableOffset());
+    }
+
+    @Test
+    public void testAppend_CategoryTooLong_Exception() {
+        OrderLog orderLog = open(1024, OrderLog.FsyncPolicy.PER_WRITE);
+
+        // 32 characters, but 64 bytes in UTF-8
+        assertThrows(IllegalArgumentException.class,
+                () -> orderLog.append(1L, BigDecimal.TEN, null, "\u00e9".repeat(32)));
+        assertEquals(0, orderLog.append(1L, BigDecimal.TEN, null, "e".repeat(32)));
+        assertEquals("e".repeat(32), orderLog.read(0, 1).get(0).category());
+    }
+
+    @Test
+    public void testAppend_RotatesSegmentsAndReleaseDeletesAppliedOnes() throws IOException {
+        OrderLog orderLog = open(3 * OrderLog.RECORD_SIZE, OrderLog.FsyncPolicy.PER_BATCH);
+        for (long customerId = 0; customerId < 7; customerId++) {
+            orderLog.append(customerId, BigDecimal.TEN, null, null);
+        }
+        assertEquals(Set.of("00000000000000000000.log", "00000000000000000003.log", "00000000000000000006.log"),
+                segmentNames());
+        assertEquals(LongStream.range(0, 7).boxed().toList(),
+                orderLog.read(0, 10).stream().map(OrderLog.Entry::customerId).toList());
+
+        orderLog.release(5);
+        assertEquals(Set.of("00000000000000000003.log", "00000000000000000006.log"), segmentNames());
+        assertEquals(List.of(5L, 6L), orderLog.read(5, 10).stream().map(OrderLog.Entry::customerId).toList());
+    }
+
+    @Test
+    public void testOpen_ResumesAfterLastRecordAndIgnoresTornRecord() throws IOException {
+        OrderLog orderLog = open(4 * OrderLog.RECORD_SIZE, OrderLog.FsyncPolicy.PER_WRITE);
+        for (long customerId = 0; customerId < 6; customerId++) {
+            orderLog.append(customerId, BigDecimal.TEN, null, null);
+        }
+        // A record cut short by a crash, its checksum does not match
+        try (FileChannel channel = FileChannel.open(directory.resolve("00000000000000000004.log"),
+                StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }), 2L * OrderLog.RECORD_SIZE);
+        }
+        doReturn(2L)
+                .when(offsetRepo)
+                .findCommittedOffset(OrderLog.NAME);
+
+        OrderLog reopened = open(4 * OrderLog.RECORD_SIZE, OrderLog.FsyncPolicy.PER_WRITE);
+
+        assertEquals(6, reopened.getDurableOffset());
+        assertEquals(List.of(2L, 3L, 4L, 5L), reopened.read(2, 10).stream().map(OrderLog.Entry::customerId)
+                .toList());
+        assertEquals(6, reopened.append(42L, BigDecimal.ONE, null, null));
+        assertEquals(42L, reopened.read(6, 1).get(0).customerId());
+    }
+
+    @Test
+    public void testOpen_LogEndsBeforeCommittedOffset_Exception() {
+        OrderLog orderLog = open(1024, OrderLog.FsyncPolicy.PER_WRITE);
+        orderLog.append(1L, BigDecimal.TEN, null, null);
+        doReturn(5L)
+                .when(offsetRepo)
+                .findCommittedOffset(any());
+
+        assertThrows(IllegalStateException.class, () -> open(1024, OrderLog.FsyncPolicy.PER_WRITE));
+    }
+
+    @Test
+    public void testOpen_EmptyDirectory_StartsAtCommittedOffset() {
+        doReturn(40L)
+                .when(offsetRepo)
+                .findCommittedOffset(OrderLog.NAME);
+
+        OrderLog orderLog = open(1024, OrderLog.FsyncPolicy.PER_WRITE);
+
+        assertEquals(40, orderLog.append(1L, BigDecimal.TEN, null, null));
+    }
+
+    @Test
+    public void testAppend_PerBatch_ConcurrentWritersGetDistinctDurableOffsets() throws Exception {
+        OrderLog orderLog = open(64 * OrderLog.RECORD_SIZE, OrderLog.FsyncPolicy.PER_BATCH);
+        Set<Long> offsets = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < 8; writer++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        long offset = orderLog.append(1L, BigDecimal.TEN, null, null);
+                        // Acknowledged records are always durable
+                        assertFalse(orderLog.getDurableOffset() <= offset);
+                        offsets.add(offset);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(LongStream.range(0, 400).boxed().toList(), offsets.stream().sorted().toList());
+        assertEquals(400, orderLog.read(0, 1000).size());
+    }
+
+    @Test
+    public void testAppend_Timed_WaitsForForce() throws Exception {
+        OrderLog orderLog = open(1024, OrderLog.FsyncPolicy.TIMED);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> offset = executor.submit(() -> orderLog.append(1L, BigDecimal.TEN, null, null));
+            Thread.sleep(100);
+            assertFalse(offset.isDone());
+            assertEquals(List.of(), orderLog.read(0, 10));
+
+            // Repeated like the schedule, in case the append had not been written yet
+            for (int i = 0; i < 500 && !offset.isDone(); i++) {
+                orderLog.forceOnInterval();
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, offset.get(5, TimeUnit.SECONDS));
+            assertEquals(1, orderLog.read(0, 10).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAppend_Disabled_Exception() throws IOException {
+        OrderLog orderLog = new OrderLog(offsetRepo, false, directory, 1024, OrderLog.FsyncPolicy.PER_WRITE);
+
+        assertThrows(IllegalStateException.class, () -> orderLog.append(1L, BigDecimal.TEN, null, null));
+        verifyNoInteractions(offsetRepo);
+        assertEquals(Set.of(), segmentNames());
+    }
+
+    private OrderLog open(int segmentSize, OrderLog.FsyncPolicy fsyncPolicy) {
+        return new OrderLog(offsetRepo, true, directory, segmentSize, fsyncPolicy);
+    }
+
+    private Set<String> segmentNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).collect(Collectors.toSet());
+        }
+    }
+}
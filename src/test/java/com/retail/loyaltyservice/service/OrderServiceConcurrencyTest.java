@@ -0,0 +1,79 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.CustomerMonthlyPoints;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Stress test firing parallel orders at a single customer against the real database.
+ */
+@SpringBootTest
+class OrderServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+
+    private static final int ORDERS = 2_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CustomerRepository customerRepo;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    @Test
+    public void testCreate_ParallelOrdersForOneCustomer_ExactBalance() throws Exception {
+        Customer customer = customerRepo.save(Customer.builder().name("John Doe").address("Cochin, Kerala").build());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Order>> futures = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            // 120 earns 90 points, 75 earns 25 points
+            BigDecimal amount = BigDecimal.valueOf(i % 2 == 0 ? 120 : 75);
+            LocalDate orderDate = LocalDate.of(2023, 1 + i % 4, 1 + i % 28);
+            futures.add(executor.submit(() -> {
+                start.await();
+                return orderService.create(Order.builder()
+                        .totalAmount(amount)
+                        .customer(Customer.builder().id(customer.getId()).build())
+                        .orderDate(orderDate)
+                        .build());
+            }));
+        }
+        start.countDown();
+        for (Future<Order> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int expectedPoints = ORDERS / 2 * 90 + ORDERS / 2 * 25;
+        assertEquals(ORDERS, orderRepo.findByCustomer(customer).size());
+        assertEquals(expectedPoints, customerRepo.findById(customer.getId()).get().getLoyaltyPoints());
+        List<CustomerMonthlyPoints> monthlyPoints = monthlyPointsRepo
+                .findByCustomerIdAndPeriodBetweenOrderByPeriod(customer.getId(), 202301, 202312);
+        assertEquals(4, monthlyPoints.size());
+        assertEquals(expectedPoints, monthlyPoints.stream().mapToLong(CustomerMonthlyPoints::getPoints).sum());
+    }
+}
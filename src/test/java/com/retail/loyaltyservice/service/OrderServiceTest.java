@@ -1,23 +1,34 @@
 package com.retail.loyaltyservice.service;
 
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
 import com.retail.loyaltyservice.model.Customer;
 import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.OrderPage;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
 import com.retail.loyaltyservice.repository.CustomerRepository;
 import com.retail.loyaltyservice.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -27,13 +38,32 @@ class OrderServiceTest {
 
         private CustomerRepository customerRepo;
 
+        private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+        private PointsAccumulator pointsAccumulator;
+
+        private PointsLedgerService pointsLedger;
+
+        private OrderLog orderLog;
+
+        private SimpleMeterRegistry meterRegistry;
+
         private OrderService orderService;
 
         @BeforeEach
         public void setUp() {
                 orderRepo = mock(OrderRepository.class);
                 customerRepo = mock(CustomerRepository.class);
-                orderService = new OrderService(orderRepo, customerRepo);
+                monthlyPointsRepo = mock(CustomerMonthlyPointsRepository.class);
+                pointsAccumulator = mock(PointsAccumulator.class);
+                meterRegistry = new SimpleMeterRegistry();
+                pointsLedger = mock(PointsLedgerService.class);
+                orderLog = mock(OrderLog.class);
+                orderService = new OrderService(orderRepo, customerRepo, monthlyPointsRepo, pointsAccumulator,
+                                pointsLedger, orderLog, new CustomerVersions(),
+                                mock(EntityManager.class), new LoyaltyMetrics(meterRegistry),
+                                new EarningRuleEngine("50:1,100:2", "", ""), mock(PointsAccrualPipeline.class));
+                ReflectionTestUtils.setField(orderService, "pageMaxSize", 500);
         }
 
         @Test
@@ -43,9 +73,9 @@ class OrderServiceTest {
                 doReturn(customer)
                                 .when(customerRepo)
                                 .findById(anyLong());
-                Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 47, customer.get(), LocalDate.now());
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 47, customer.get(), LocalDate.now(), null, null);
 
-                Order expectedResult = new Order(1L, BigDecimal.valueOf(45.3), 47, customer.get(), LocalDate.now());
+                Order expectedResult = new Order(1L, BigDecimal.valueOf(45.3), 47, customer.get(), LocalDate.now(), null, null);
                 doReturn(expectedResult)
                                 .when(orderRepo)
                                 .save(any());
@@ -58,7 +88,7 @@ class OrderServiceTest {
 
         @Test
         public void testCreate_CustomerNotFound_Exception_Fail() {
-                Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 47, Customer.builder().id(1L).build(), LocalDate.now());
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 47, Customer.builder().id(1L).build(), LocalDate.now(), null, null);
 
                 Exception exception = assertThrows(EntityNotFoundException.class, () -> {
                         orderService.create(orderToCreate);
@@ -73,14 +103,14 @@ class OrderServiceTest {
         public void testGet_Success() {
                 Customer customer = new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala",56);
                 Optional<Order> expectedResult = Optional
-                                .of(new Order(1L, BigDecimal.valueOf(45.3), 56, customer, LocalDate.now()));
+                                .of(new Order(1L, BigDecimal.valueOf(45.3), 56, customer, LocalDate.now(), null, null));
 
                 doReturn(expectedResult)
                                 .when(orderRepo)
-                                .findById(any());
+                                .findWithCustomerById(any());
                 Order order = orderService.get(anyLong());
 
-                verify(orderRepo).findById(anyLong());
+                verify(orderRepo).findWithCustomerById(anyLong());
                 assertThat(order.getId() == expectedResult.get().getId());
                 assertTrue(order.getTotalAmount().compareTo(BigDecimal.valueOf(45.3)) == 0);
         }
@@ -93,7 +123,7 @@ class OrderServiceTest {
                         orderService.get(nonExistentOrderId);
                 });
 
-                verify(orderRepo).findById(anyLong());
+                verify(orderRepo).findWithCustomerById(anyLong());
 
                 String expectedMessage = "Order not found for given Id: 1";
                 String actualMessage = exception.getMessage();
@@ -111,7 +141,7 @@ class OrderServiceTest {
                                 .when(customerRepo)
                                 .findById(anyLong());
                 List<Order> expectedResult = Arrays.asList(
-                                new Order(1L, BigDecimal.valueOf(45.3), 45, customer.get(), LocalDate.now()));
+                                new Order(1L, BigDecimal.valueOf(45.3), 45, customer.get(), LocalDate.now(), null, null));
 
                 doReturn(expectedResult)
                                 .when(orderRepo)
@@ -150,8 +180,8 @@ class OrderServiceTest {
                 doReturn(customer)
                                 .when(customerRepo)
                                 .findById(anyLong());
-                Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 0, customer.get(), LocalDate.now());
-                Order expectedResult = new Order(1L, BigDecimal.valueOf(45.3), 0, customer.get(), LocalDate.now());
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(45.3), 0, customer.get(), LocalDate.now(), null, null);
+                Order expectedResult = new Order(1L, BigDecimal.valueOf(45.3), 0, customer.get(), LocalDate.now(), null, null);
                 doReturn(expectedResult)
                                 .when(orderRepo)
                                 .save(any());
@@ -169,8 +199,8 @@ class OrderServiceTest {
                 doReturn(customer)
                                 .when(customerRepo)
                                 .findById(anyLong());
-                Order orderToCreate = new Order(0L, BigDecimal.valueOf(120), 90, customer.get(), LocalDate.now());
-                Order expectedResult = new Order(1L, BigDecimal.valueOf(120), 90, customer.get(), LocalDate.now());
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(120), 90, customer.get(), LocalDate.now(), null, null);
+                Order expectedResult = new Order(1L, BigDecimal.valueOf(120), 90, customer.get(), LocalDate.now(), null, null);
                 doReturn(expectedResult)
                                 .when(orderRepo)
                                 .save(any());
@@ -180,4 +210,156 @@ class OrderServiceTest {
                 verify(orderRepo).save(orderToCreate);
                 assertThat(order.getLoyaltyPoints() == 90);
         }
-}
\ No newline at end of file
+
+        @Test
+        public void testCreate_UpdatesMonthlyRollup() {
+                Optional<Customer> customer = Optional
+                                .of(new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 0));
+                doReturn(customer)
+                                .when(customerRepo)
+                                .findById(anyLong());
+                LocalDate orderDate = LocalDate.of(2023, 3, 14);
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(120), 0, customer.get(), orderDate, null, null);
+                doReturn(new Order(1L, BigDecimal.valueOf(120), 90, customer.get(), orderDate, null, null))
+                                .when(orderRepo)
+                                .save(any());
+
+                orderService.create(orderToCreate);
+
+                verify(monthlyPointsRepo).addPoints(1L, YearMonth.of(2023, 3), 90);
+        }
+
+        @Test
+        public void testCreate_IncrementsBalanceInDatabase() {
+                Optional<Customer> customer = Optional
+                                .of(new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 10));
+                doReturn(customer)
+                                .when(customerRepo)
+                                .findById(anyLong());
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(120), 0, customer.get(), LocalDate.now(), null, null);
+                doReturn(orderToCreate)
+                                .when(orderRepo)
+                                .save(any());
+
+                Order order = orderService.create(orderToCreate);
+
+                verify(customerRepo).addLoyaltyPoints(1L, 90);
+                verify(pointsLedger).earn(orderToCreate);
+                verify(customerRepo, never()).save(any());
+                assertEquals(100, order.getCustomer().getLoyaltyPoints());
+        }
+
+        @Test
+        public void testCreate_RecordsMetrics() {
+                Optional<Customer> customer = Optional
+                                .of(new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 10));
+                doReturn(customer)
+                                .when(customerRepo)
+                                .findById(anyLong());
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(120), 0, customer.get(), LocalDate.now(), null, null);
+                doReturn(orderToCreate)
+                                .when(orderRepo)
+                                .save(any());
+
+                orderService.create(orderToCreate);
+
+                assertEquals(1, meterRegistry.get("loyalty.orders.created").counter().count());
+                assertEquals(90, meterRegistry.get("loyalty.points.awarded").counter().count());
+                assertEquals(1, meterRegistry.get("loyalty.points.calculation").timer().count());
+        }
+
+        @Test
+        public void testCreate_WriteBehind_AccumulatesPoints() {
+                Optional<Customer> customer = Optional
+                                .of(new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 10));
+                doReturn(customer)
+                                .when(customerRepo)
+                                .findById(anyLong());
+                LocalDate orderDate = LocalDate.of(2023, 3, 14);
+                Order orderToCreate = new Order(0L, BigDecimal.valueOf(120), 0, customer.get(), orderDate, null, null);
+                doReturn(orderToCreate)
+                                .when(orderRepo)
+                                .save(any());
+                doReturn(true)
+                                .when(pointsAccumulator)
+                                .isEnabled();
+
+                orderService.create(orderToCreate);
+
+                verify(pointsAccumulator).add(1L, YearMonth.of(2023, 3), 90);
+                verify(pointsLedger).earn(orderToCreate);
+                verify(customerRepo, never()).addLoyaltyPoints(anyLong(), anyInt());
+                verify(monthlyPointsRepo, never()).addPoints(anyLong(), any(), anyLong());
+        }
+
+        @Test
+        public void testAccept_AppendsToOrderLog() {
+                Optional<Customer> customer = Optional
+                                .of(new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 10));
+                doReturn(customer)
+                                .when(customerRepo)
+                                .findById(anyLong());
+                LocalDate orderDate = LocalDate.of(2023, 3, 14);
+                Order orderToAccept = new Order(0L, BigDecimal.valueOf(120), 0, Customer.builder().id(1L).build(),
+                                orderDate, null, null);
+
+                Order order = orderService.accept(orderToAccept);
+
+                verify(orderLog).append(1L, BigDecimal.valueOf(120), orderDate, null);
+                assertEquals(90, order.getLoyaltyPoints());
+                assertEquals(10, order.getCustomer().getLoyaltyPoints());
+                verify(orderRepo, never()).save(any());
+                verify(customerRepo, never()).addLoyaltyPoints(anyLong(), anyInt());
+                verifyNoInteractions(pointsLedger);
+        }
+
+        @Test
+        public void testAccept_CustomerNotFound_Exception() {
+                Order orderToAccept = new Order(0L, BigDecimal.valueOf(120), 0, Customer.builder().id(1L).build(),
+                                LocalDate.now(), null, null);
+
+                assertThrows(EntityNotFoundException.class, () -> orderService.accept(orderToAccept));
+                verifyNoInteractions(orderLog);
+        }
+
+        @Test
+        public void testGetPageByCustomerId_CursorResumesAfterLastOrder() {
+                Customer customer = new Customer(1L, "John Doe", "johndoe@yahoo.com", "Cochin, Kerala", 0);
+                doReturn(true)
+                                .when(customerRepo)
+                                .existsById(1L);
+                doReturn(Arrays.asList(new Order(7L, BigDecimal.valueOf(45.3), 0, customer, LocalDate.of(2023, 1, 5), null, null),
+                                new Order(9L, BigDecimal.valueOf(45.3), 0, customer, LocalDate.of(2023, 1, 9), null, null)))
+                                .when(orderRepo)
+                                .findFirstPageByCustomerId(1L, PageRequest.ofSize(2));
+
+                OrderPage firstPage = orderService.getPageByCustomerId(1L, null, 1);
+                assertEquals(1, firstPage.getOrders().size());
+                assertEquals(7L, firstPage.getOrders().get(0).getId());
+
+                doReturn(Arrays.asList(new Order(9L, BigDecimal.valueOf(45.3), 0, customer, LocalDate.of(2023, 1, 9), null, null)))
+                                .when(orderRepo)
+                                .findPageByCustomerIdAfter(1L, LocalDate.of(2023, 1, 5), 7L, PageRequest.ofSize(2));
+
+                OrderPage lastPage = orderService.getPageByCustomerId(1L, firstPage.getNextCursor(), 1);
+                assertEquals(9L, lastPage.getOrders().get(0).getId());
+                assertNull(lastPage.getNextCursor());
+        }
+
+        @Test
+        public void testGetPageByCustomerId_InvalidSizeOrCursor_Exception() {
+                doReturn(true)
+                                .when(customerRepo)
+                                .existsById(1L);
+
+                assertThrows(IllegalArgumentException.class, () -> orderService.getPageByCustomerId(1L, null, 0));
+                assertThrows(IllegalArgumentException.class, () -> orderService.getPageByCustomerId(1L, null, 501));
+                assertThrows(IllegalArgumentException.class,
+                                () -> orderService.getPageByCustomerId(1L, "not-a-cursor", 10));
+        }
+
+        @Test
+        public void testGetPageByCustomerId_CustomerNotFound_Exception() {
+                assertThrows(EntityNotFoundException.class, () -> orderService.getPageByCustomerId(1L, null, 10));
+        }
+}
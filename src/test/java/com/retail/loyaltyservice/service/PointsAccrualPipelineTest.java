@@ -0,0 +1,104 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PendingAccrual;
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PendingAccrualRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PointsAccrualPipelineTest {
+
+    private static final int QUEUE_CAPACITY = 2;
+
+    private EntityManager entityManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PointsAccrualPipeline pipeline;
+
+    @BeforeEach
+    public void setUp() {
+        entityManager = mock(EntityManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new PointsAccrualPipeline(mock(PendingAccrualRepository.class), mock(CustomerRepository.class),
+                mock(CustomerMonthlyPointsRepository.class), mock(PointsLedgerService.class),
+                new CustomerVersions(), entityManager, new LoyaltyMetrics(meterRegistry),
+                mock(PlatformTransactionManager.class), true, QUEUE_CAPACITY, 10, 10, false);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testSubmit_QueueFull_RejectedUntilRoomIsFreed() {
+        pipeline.submit(order(1L));
+        pipeline.submit(order(2L));
+
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(order(3L)));
+        assertEquals(1, meterRegistry.get("loyalty.accrual.rejected").counter().count());
+        verify(entityManager, times(2)).persist(any(PendingAccrual.class));
+
+        // A rolled back order gives its room back
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertEquals(0, meterRegistry.get("loyalty.accrual.queue.depth").gauge().value());
+        TransactionSynchronizationManager.initSynchronization();
+        pipeline.submit(order(3L));
+        pipeline.submit(order(4L));
+
+        // A committed order keeps its room until its points are applied
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(QUEUE_CAPACITY, meterRegistry.get("loyalty.accrual.queue.depth").gauge().value());
+        TransactionSynchronizationManager.initSynchronization();
+        assertThrows(RejectedExecutionException.class, () -> pipeline.submit(order(5L)));
+    }
+
+    @Test
+    public void testCreate_WriteBehindEnabled_Exception() {
+        assertThrows(IllegalStateException.class, () -> new PointsAccrualPipeline(
+                mock(PendingAccrualRepository.class), mock(CustomerRepository.class),
+                mock(CustomerMonthlyPointsRepository.class), mock(PointsLedgerService.class),
+                new CustomerVersions(), entityManager, new LoyaltyMetrics(new SimpleMeterRegistry()),
+                mock(PlatformTransactionManager.class), true, QUEUE_CAPACITY, 10, 10, true));
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                status);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static Order order(Long id) {
+        return Order.builder()
+                .id(id)
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(1L).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .loyaltyPoints(90)
+                .build();
+    }
+}
@@ -0,0 +1,165 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.repository.CustomerMonthlyPointsRepository;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class PointsAccumulatorTest {
+
+    private CustomerRepository customerRepo;
+
+    private CustomerMonthlyPointsRepository monthlyPointsRepo;
+
+    private PointsAccumulator pointsAccumulator;
+
+    @BeforeEach
+    public void setUp() {
+        customerRepo = mock(CustomerRepository.class);
+        monthlyPointsRepo = mock(CustomerMonthlyPointsRepository.class);
+        pointsAccumulator = new PointsAccumulator(customerRepo, monthlyPointsRepo, new CustomerVersions(),
+                mock(PlatformTransactionManager.class), true);
+    }
+
+    @Test
+    public void testFlush_CoalescesDeltasPerCustomerAndMonth() {
+        pointsAccumulator.add(1L, YearMonth.of(2023, 3), 90);
+        pointsAccumulator.add(1L, YearMonth.of(2023, 3), 10);
+        pointsAccumulator.add(1L, YearMonth.of(2023, 4), 25);
+        pointsAccumulator.add(2L, null, 7);
+        assertEquals(125, pointsAccumulator.getPendingPoints(1L));
+
+        pointsAccumulator.flush();
+
+        verify(customerRepo).addLoyaltyPoints(1L, 125);
+        verify(customerRepo).addLoyaltyPoints(2L, 7);
+        verify(monthlyPointsRepo).addPoints(1L, YearMonth.of(2023, 3), 100);
+        verify(monthlyPointsRepo).addPoints(1L, YearMonth.of(2023, 4), 25);
+        verifyNoMoreInteractions(customerRepo, monthlyPointsRepo);
+        assertEquals(0, pointsAccumulator.getPendingPoints(1L));
+
+        pointsAccumulator.flush();
+        verifyNoMoreInteractions(customerRepo, monthlyPointsRepo);
+    }
+
+    @Test
+    public void testFlush_Failure_KeepsPendingPoints() {
+        doThrow(new IllegalStateException("database unavailable"))
+                .when(customerRepo)
+                .addLoyaltyPoints(anyLong(), anyInt());
+        pointsAccumulator.add(1L, YearMonth.of(2023, 3), 90);
+
+        pointsAccumulator.flush();
+        assertEquals(90, pointsAccumulator.getPendingPoints(1L));
+
+        doReturn(1)
+                .when(customerRepo)
+                .addLoyaltyPoints(anyLong(), anyInt());
+        pointsAccumulator.flush();
+        verify(monthlyPointsRepo).addPoints(1L, YearMonth.of(2023, 3), 90);
+        assertEquals(0, pointsAccumulator.getPendingPoints(1L));
+    }
+
+    @Test
+    public void testFlush_Disabled_DoesNothing() {
+        pointsAccumulator = new PointsAccumulator(customerRepo, monthlyPointsRepo, new CustomerVersions(),
+                mock(PlatformTransactionManager.class), false);
+        pointsAccumulator.add(1L, YearMonth.of(2023, 3), 90);
+
+        pointsAccumulator.flushOnShutdown();
+
+        verify(customerRepo, never()).addLoyaltyPoints(anyLong(), anyInt());
+        verify(monthlyPointsRepo, never()).addPoints(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    public void testGetLoyaltyPoints_NonBlocking_AddsPendingPoints() {
+        pointsAccumulator.add(1L, YearMonth.of(2023, 3), 90);
+
+        assertEquals(130, pointsAccumulator.getLoyaltyPoints(1L, Mono.just(40)).block());
+
+        pointsAccumulator.flush();
+        assertEquals(40, pointsAccumulator.getLoyaltyPoints(1L, Mono.just(40)).block());
+    }
+
+    @Test
+    public void testConcurrentAddsAndFlushes_NoPointsLostAndReadsNeverGoBack() throws Exception {
+        int customers = 4;
+        int threads = 16;
+        int ordersPerThread = 10_000;
+        Map<Long, Integer> persisted = new ConcurrentHashMap<>();
+        doAnswer(invocation -> {
+            persisted.merge(invocation.getArgument(0), invocation.getArgument(1), Integer::sum);
+            return 1;
+        }).when(customerRepo).addLoyaltyPoints(anyLong(), anyInt());
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean ordering = new AtomicBoolean(true);
+        List<Future<?>> orders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            orders.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    pointsAccumulator.add((long) (i % customers), YearMonth.of(2023, 3), 1);
+                }
+                return null;
+            }));
+        }
+        Future<?> flusher = executor.submit(() -> {
+            start.await();
+            while (ordering.get()) {
+                pointsAccumulator.flush();
+            }
+            return null;
+        });
+        Future<Boolean> reader = executor.submit(() -> {
+            start.await();
+            int last = 0;
+            while (ordering.get()) {
+                int current = pointsAccumulator.getLoyaltyPoints(0L, () -> persisted.getOrDefault(0L, 0));
+                if (current < last) {
+                    return false;
+                }
+                last = current;
+            }
+            return true;
+        });
+
+        start.countDown();
+        for (Future<?> order : orders) {
+            order.get(30, TimeUnit.SECONDS);
+        }
+        ordering.set(false);
+        flusher.get(30, TimeUnit.SECONDS);
+        assertTrue(reader.get(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        pointsAccumulator.flush();
+
+        for (long customerId = 0; customerId < customers; customerId++) {
+            assertEquals(threads * ordersPerThread / customers, persisted.get(customerId));
+            assertEquals(0, pointsAccumulator.getPendingPoints(customerId));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.ExpirySweepSummary;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PointsTransaction;
+import com.retail.loyaltyservice.repository.ExpiryCheckpointRepository;
+import com.retail.loyaltyservice.repository.PointsTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Points expiry sweeps against the real database, with several workers and small batches. Orders are dated decades
+ * back, so the sweeps only expire points of the customers created here.
+ */
+@SpringBootTest(properties = { "loyalty.service.expiry.workers=3", "loyalty.service.expiry.batch_size=2" })
+class PointsExpiryJobTest {
+
+    @Autowired
+    private PointsExpiryJob pointsExpiryJob;
+
+    @Autowired
+    private ExpiryCheckpointRepository checkpointRepo;
+
+    @Autowired
+    private PointsTransactionRepository transactionRepo;
+
+    @Autowired
+    private PointsLedgerService pointsLedger;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    public void testSweep_PointsOfExpiredMonthsExpiredOnce() {
+        List<Long> customerIds = IntStream.range(0, 5)
+                .mapToObj(i -> createCustomer(10))
+                .toList();
+        customerIds.forEach(customerId -> {
+            createOrder(customerId, LocalDate.of(1990, 1, 14));
+            createOrder(customerId, LocalDate.of(1990, 2, 14));
+            createOrder(customerId, LocalDate.of(1990, 6, 14));
+        });
+
+        ExpirySweepSummary summary = pointsExpiryJob.sweep(YearMonth.of(1991, 3));
+
+        assertEquals(199003, summary.getCutoffPeriod());
+        assertEquals(5, summary.getCustomersExpired());
+        assertEquals(5 * 180, summary.getPointsExpired());
+        customerIds.forEach(customerId -> {
+            // The opening balance and the June order are left
+            assertEquals(100, customerService.get(customerId).getLoyaltyPoints());
+            assertEquals(100, pointsLedger.getBalance(customerId));
+            assertEquals(List.of(-180), expiries(customerId));
+        });
+        assertEquals(0, pointsExpiryJob.sweep(YearMonth.of(1991, 3)).getPointsExpired());
+
+        // A new sweep settles against what was expired before
+        checkpointRepo.deleteAllInBatch();
+        assertEquals(0, pointsExpiryJob.sweep(YearMonth.of(1991, 3)).getPointsExpired());
+        assertEquals(100, customerService.get(customerIds.get(0)).getLoyaltyPoints());
+
+        pointsExpiryJob.sweep(YearMonth.of(1991, 7));
+        customerIds.forEach(customerId -> {
+            assertEquals(10, customerService.get(customerId).getLoyaltyPoints());
+            assertEquals(List.of(-180, -90), expiries(customerId));
+        });
+    }
+
+    @Test
+    public void testSweep_PointsAlreadySpent_OnlyBalanceExpired() {
+        Long customerId = createCustomer(0);
+        createOrder(customerId, LocalDate.of(1980, 1, 14));
+        createOrder(customerId, LocalDate.of(1980, 2, 14));
+        Customer customer = customerService.get(customerId);
+        customer.setLoyaltyPoints(30);
+        customerService.update(customer);
+
+        ExpirySweepSummary summary = pointsExpiryJob.sweep(YearMonth.of(1981, 2));
+
+        assertEquals(1, summary.getCustomersExpired());
+        assertEquals(30, summary.getPointsExpired());
+        assertEquals(0, customerService.get(customerId).getLoyaltyPoints());
+
+        // Points of February were settled by the balance taken off before
+        assertEquals(0, pointsExpiryJob.sweep(YearMonth.of(1981, 3)).getPointsExpired());
+        assertEquals(List.of(-30), expiries(customerId));
+    }
+
+    private Long createCustomer(int loyaltyPoints) {
+        return customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala")
+                .loyaltyPoints(loyaltyPoints).build()).getId();
+    }
+
+    private void createOrder(Long customerId, LocalDate orderDate) {
+        orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customerId).build())
+                .orderDate(orderDate)
+                .build());
+    }
+
+    private List<Integer> expiries(Long customerId) {
+        return transactionRepo.findAll().stream()
+                .filter(transaction -> transaction.getCustomerId().equals(customerId))
+                .filter(transaction -> transaction.getType() == PointsTransaction.Type.EXPIRE)
+                .map(PointsTransaction::getPoints)
+                .toList();
+    }
+}
@@ -0,0 +1,124 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.model.Customer;
+import com.retail.loyaltyservice.model.Order;
+import com.retail.loyaltyservice.model.PointsTransaction;
+import com.retail.loyaltyservice.repository.PointsSnapshotRepository;
+import com.retail.loyaltyservice.repository.PointsTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Points ledger against the real database. Entries settle at once and snapshots are only taken when the test asks
+ * for them.
+ */
+@SpringBootTest(properties = { "loyalty.service.ledger.settle_ms=0",
+        "loyalty.service.ledger.snapshot_interval_ms=3600000" })
+@AutoConfigureMockMvc
+class PointsLedgerTest {
+
+    @Autowired
+    private PointsLedgerService pointsLedger;
+
+    @Autowired
+    private PointsLedgerJob pointsLedgerJob;
+
+    @Autowired
+    private PointsTransactionRepository transactionRepo;
+
+    @Autowired
+    private PointsSnapshotRepository snapshotRepo;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testGetBalance_SnapshotPlusTail_MatchesCustomerBalance() {
+        Long customerId = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala")
+                .loyaltyPoints(40).build()).getId();
+        createOrder(customerId);
+        createOrder(customerId);
+        assertEquals(220, pointsLedger.getBalance(customerId));
+
+        pointsLedgerJob.snapshot();
+        assertEquals(220, snapshotRepo.findById(customerId).get().getBalance());
+
+        createOrder(customerId);
+        assertEquals(310, pointsLedger.getBalance(customerId));
+        assertEquals(310, loyaltyService.getLoyaltyPoints(customerId));
+
+        pointsLedgerJob.snapshot();
+        assertEquals(310, snapshotRepo.findById(customerId).get().getBalance());
+        assertEquals(310, pointsLedger.getBalance(customerId));
+    }
+
+    @Test
+    public void testUpdate_BalanceChangeRecordedAsAdjustment() {
+        Customer customer = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala")
+                .loyaltyPoints(40).build());
+        createOrder(customer.getId());
+
+        customer.setLoyaltyPoints(15);
+        customerService.update(customer);
+
+        List<PointsTransaction> transactions = transactionRepo.findAll().stream()
+                .filter(transaction -> transaction.getCustomerId().equals(customer.getId()))
+                .toList();
+        assertEquals(List.of(PointsTransaction.Type.ADJUST, PointsTransaction.Type.EARN,
+                PointsTransaction.Type.ADJUST), transactions.stream().map(PointsTransaction::getType).toList());
+        assertEquals(List.of(40, 90, -115), transactions.stream().map(PointsTransaction::getPoints).toList());
+        assertEquals(15, pointsLedger.getBalance(customer.getId()));
+        assertEquals(15, loyaltyService.getLoyaltyPoints(customer.getId()));
+    }
+
+    @Test
+    public void testRebuild_RestoresBalancesFromLedger() throws Exception {
+        Long customerId = customerService.create(Customer.builder().name("John Doe").address("Cochin, Kerala")
+                .build()).getId();
+        createOrder(customerId);
+        pointsLedgerJob.snapshot();
+        createOrder(customerId);
+        assertEquals(180, loyaltyService.getLoyaltyPoints(customerId));
+
+        jdbcTemplate.update("UPDATE \"customers\" SET \"loyalty_points\" = 7 WHERE \"id\" = ?", customerId);
+        mockMvc.perform(post("/actuator/ledger"))
+                .andExpect(status().isOk());
+
+        assertEquals(180, loyaltyService.getLoyaltyPoints(customerId));
+        assertEquals(180, customerService.get(customerId).getLoyaltyPoints());
+        assertEquals(180, snapshotRepo.findById(customerId).get().getBalance());
+        assertEquals(180, pointsLedger.getBalance(customerId));
+    }
+
+    private void createOrder(Long customerId) {
+        orderService.create(Order.builder()
+                .totalAmount(BigDecimal.valueOf(120))
+                .customer(Customer.builder().id(customerId).build())
+                .orderDate(LocalDate.of(2023, 3, 14))
+                .build());
+    }
+}
@@ -0,0 +1,101 @@
+package com.retail.loyaltyservice.service;
+
+import com.retail.loyaltyservice.metrics.LoyaltyMetrics;
+import com.retail.loyaltyservice.model.PointsExpiry;
+import com.retail.loyaltyservice.model.PointsRedemption;
+import com.retail.loyaltyservice.repository.CustomerRepository;
+import com.retail.loyaltyservice.repository.PointsExpiryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class PointsRedemptionServiceTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private PointsLedgerService pointsLedger;
+
+    private PointsExpiryRepository expiryRepo;
+
+    private MeterRegistry meterRegistry;
+
+    private PointsRedemptionService pointsRedemptionService;
+
+    @BeforeEach
+    public void setUp() {
+        pointsLedger = mock(PointsLedgerService.class);
+        CustomerRepository customerRepo = mock(CustomerRepository.class);
+        doReturn(Optional.of(40)).when(customerRepo).findCurrentLoyaltyPointsById(1L);
+        expiryRepo = mock(PointsExpiryRepository.class);
+        doReturn(Optional.empty()).when(expiryRepo).findById(1L);
+        meterRegistry = new SimpleMeterRegistry();
+        pointsRedemptionService = new PointsRedemptionService(pointsLedger, customerRepo, expiryRepo,
+                new CustomerVersions(), new LoyaltyMetrics(meterRegistry), mock(PlatformTransactionManager.class),
+                MAX_ATTEMPTS, 0);
+    }
+
+    @Test
+    public void testRedeem_Success() {
+        PointsRedemption redemption = pointsRedemptionService.redeem(1L, 60);
+
+        verify(pointsLedger).redeem(1L, 60);
+        assertEquals(1L, redemption.getCustomerId());
+        assertEquals(60, redemption.getPoints());
+        assertEquals(40, redemption.getLoyaltyPoints());
+        ArgumentCaptor<PointsExpiry> expiry = ArgumentCaptor.forClass(PointsExpiry.class);
+        verify(expiryRepo).save(expiry.capture());
+        assertEquals(60, expiry.getValue().getSettledPoints());
+        assertEquals(60, meterRegistry.get("loyalty.points.redeemed").counter().count());
+    }
+
+    @Test
+    public void testRedeem_LockContended_Retried() {
+        doThrow(new CannotAcquireLockException("Timeout trying to lock table"))
+                .doThrow(new CannotAcquireLockException("Timeout trying to lock table"))
+                .doNothing()
+                .when(pointsLedger).redeem(1L, 60);
+
+        assertEquals(40, pointsRedemptionService.redeem(1L, 60).getLoyaltyPoints());
+
+        verify(pointsLedger, times(3)).redeem(1L, 60);
+        verify(expiryRepo, times(1)).save(any());
+        assertEquals(2, meterRegistry.get("loyalty.redemption.retries").counter().count());
+    }
+
+    @Test
+    public void testRedeem_LockContendedInEveryAttempt_Exception() {
+        doThrow(new CannotAcquireLockException("Timeout trying to lock table"))
+                .when(pointsLedger).redeem(1L, 60);
+
+        assertThrows(CannotAcquireLockException.class, () -> pointsRedemptionService.redeem(1L, 60));
+
+        verify(pointsLedger, times(MAX_ATTEMPTS)).redeem(1L, 60);
+        verify(expiryRepo, never()).save(any());
+    }
+
+    @Test
+    public void testRedeem_InsufficientPoints_NotRetried() {
+        doThrow(new IllegalArgumentException("Insufficient loyalty points to redeem 60"))
+                .when(pointsLedger).redeem(1L, 60);
+
+        assertThrows(IllegalArgumentException.class, () -> pointsRedemptionService.redeem(1L, 60));
+
+        verify(pointsLedger, times(1)).redeem(1L, 60);
+    }
+
+    @Test
+    public void testRedeem_NotPositive_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> pointsRedemptionService.redeem(1L, 0));
+        verifyNoInteractions(pointsLedger);
+    }
+}
@@ -0,0 +1,47 @@
+package com.retail.loyaltyservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    public void testMightContain_AddedKeys_NoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put("pos-17-" + i);
+        }
+        for (int i = 0; i < KEYS; i++) {
+            assertTrue(filter.mightContain("pos-17-" + i), "pos-17-" + i);
+        }
+    }
+
+    @Test
+    public void testMightContain_FalsePositiveRateNearTarget() {
+        BloomFilter filter = BloomFilter.create(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            falsePositives += filter.mightContain("other-" + i) ? 1 : 0;
+        }
+        assertTrue(falsePositives < KEYS * 0.02, "false positives: " + falsePositives);
+        assertEquals(7, filter.getHashFunctions());
+    }
+
+    @Test
+    public void testCreate_InvalidParameters_Exception() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(KEYS, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(KEYS, 1));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(Long.MAX_VALUE / 2, 0.01));
+    }
+}
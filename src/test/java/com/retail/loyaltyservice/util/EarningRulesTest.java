@@ -0,0 +1,97 @@
+package com.retail.loyaltyservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EarningRulesTest {
+
+    private static final int SAMPLES = 200_000;
+
+    private static final LocalDate ORDER_DATE = LocalDate.of(2023, 3, 14);
+
+    @Test
+    public void testCalculatePoints_TwoTiers_MatchLoyaltyPointsUtil() {
+        Random random = new Random(20230501L);
+        for (int i = 0; i < SAMPLES; i++) {
+            int spendMultiplierOverFifty = random.nextInt(11);
+            int spendMultiplierOverHundred = random.nextInt(11);
+            EarningRules rules = EarningRules.compile("50:" + spendMultiplierOverFifty + ",100:"
+                    + spendMultiplierOverHundred, null, null);
+            long cents = random.nextInt(10) == 0 ? random.nextLong() % (LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS + 1)
+                    : random.nextInt(100_000) - 1_000;
+            BigDecimal amount = BigDecimal.valueOf(cents, 2 + random.nextInt(2));
+            assertEquals(LoyaltyPointsUtil.calculatePoints(amount, spendMultiplierOverFifty,
+                    spendMultiplierOverHundred), rules.calculatePoints(amount, null, ORDER_DATE),
+                    () -> "amount=" + amount + ", tiers=" + rules.getTiers());
+        }
+    }
+
+    @Test
+    public void testCalculatePoints_ManyTiers_SumsEveryTierBelow() {
+        EarningRules rules = EarningRules.compile("0:1, 50:2, 100.50:3, 1000:5", "", "");
+
+        assertEquals(0, rules.calculatePoints(BigDecimal.valueOf(-10), null, null));
+        assertEquals(0, rules.calculatePoints(BigDecimal.ZERO, null, null));
+        assertEquals(49, rules.calculatePoints(new BigDecimal("49.99"), null, null));
+        assertEquals(50, rules.calculatePoints(BigDecimal.valueOf(50), null, null));
+        // 50 + 2 * 50.50 + 3 * 99.49, each tier truncated on its own
+        assertEquals(50 + 101 + 298, rules.calculatePoints(new BigDecimal("199.99"), null, null));
+        assertEquals(50 + 101 + 2698 + 5 * 500, rules.calculatePoints(BigDecimal.valueOf(1500), null, null));
+    }
+
+    @Test
+    public void testCalculatePoints_FixedPointMatchesExact() {
+        EarningRules rules = EarningRules.compile("10:1,25.50:3,80:4,200:7", "a:2", "2023-01-01/2023-12-31:3");
+        Random random = new Random(20230502L);
+        for (int i = 0; i < SAMPLES; i++) {
+            long cents = random.nextInt(100_000) - 1_000;
+            // The same amount with a third decimal place takes the exact path
+            assertEquals(rules.calculatePointsInCents(cents, "a", ORDER_DATE),
+                    rules.calculatePoints(BigDecimal.valueOf(cents * 10, 3), "a", ORDER_DATE), "cents=" + cents);
+        }
+    }
+
+    @Test
+    public void testCalculatePoints_CategoryAndPromotionsMultiply() {
+        EarningRules rules = EarningRules.compile("50:1,100:2", "grocery:2,tobacco:0",
+                "2023-11-24/2023-11-27:3,2023-11-27/2023-11-30:2");
+        BigDecimal amount = BigDecimal.valueOf(120);
+
+        assertEquals(90, rules.calculatePoints(amount, null, null));
+        assertEquals(90, rules.calculatePoints(amount, "toys", LocalDate.of(2023, 11, 23)));
+        assertEquals(180, rules.calculatePoints(amount, "grocery", LocalDate.of(2023, 11, 23)));
+        assertEquals(0, rules.calculatePoints(amount, "tobacco", null));
+        assertEquals(270, rules.calculatePoints(amount, null, LocalDate.of(2023, 11, 24)));
+        assertEquals(540, rules.calculatePoints(amount, null, LocalDate.of(2023, 11, 27)));
+        assertEquals(360, rules.calculatePoints(amount, "grocery", LocalDate.of(2023, 11, 30)));
+        assertEquals(90, rules.calculatePoints(amount, null, LocalDate.of(2023, 12, 1)));
+    }
+
+    @Test
+    public void testCalculatePoints_PointsOutOfRange_Exception() {
+        EarningRules rules = EarningRules.compile("0:1000000", null, null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> rules.calculatePoints(BigDecimal.valueOf(1_000_000), null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> rules.calculatePoints(new BigDecimal("1e12"), null, null));
+    }
+
+    @Test
+    public void testCompile_InvalidDefinitions_Exception() {
+        String[] tiers = { "100:2,50:1", "50:1,50:2", "-1:1", "50", "50:x", "50:-1", "0.001:1", ":1" };
+        for (String tier : tiers) {
+            assertThrows(IllegalArgumentException.class, () -> EarningRules.compile(tier, null, null), tier);
+        }
+        assertThrows(IllegalArgumentException.class, () -> EarningRules.compile("50:1", "a:1,a:2", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> EarningRules.compile("50:1", null, "2023-11-27/2023-11-24:2"));
+        assertThrows(IllegalArgumentException.class, () -> EarningRules.compile("50:1", null, "2023-11-27:2"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.retail.loyaltyservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoyaltyPointsUtilTest {
+
+    private static final int SAMPLES = 200_000;
+
+    private static final int[] MULTIPLIERS = { 0, 1, 2, 3, 7, 100, -1, -5, Integer.MAX_VALUE, Integer.MIN_VALUE };
+
+    @Test
+    public void testCalculatePoints_BoundaryAmounts_MatchExact() {
+        String[] amounts = { "0", "-0.01", "-150", "49.99", "50", "50.00", "50.01", "50.5", "99.99", "100",
+                "100.00", "100.01", "100.1", "100.99", "160.50", "75.50", "50.58", "21474836.48", "21474836.47",
+                "21474836.49", "-21474836.48", "99999999999.99", "100.001", "100.999", "1E+2", "1.5E+3" };
+        for (String amount : amounts) {
+            for (int spendMultiplierOverFifty : MULTIPLIERS) {
+                for (int spendMultiplierOverHundred : MULTIPLIERS) {
+                    assertEquivalent(new BigDecimal(amount), spendMultiplierOverFifty, spendMultiplierOverHundred);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCalculatePoints_RandomAmountsInCents_MatchExact() {
+        Random random = new Random(20230401L);
+        for (int i = 0; i < SAMPLES; i++) {
+            long cents = random.nextInt(10) == 0 ? random.nextLong() % (LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS + 1)
+                    : random.nextInt(100_000) - 1_000;
+            BigDecimal amount = BigDecimal.valueOf(cents, random.nextInt(3));
+            assertEquivalent(amount, randomMultiplier(random), randomMultiplier(random));
+        }
+    }
+
+    @Test
+    public void testCalculatePoints_RandomAmountsBeyondCents_MatchExact() {
+        Random random = new Random(20230402L);
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 10_000_000_000L, random.nextInt(12) - 2);
+            assertEquivalent(amount, randomMultiplier(random), randomMultiplier(random));
+        }
+    }
+
+    @Test
+    public void testCalculatePointsInCents_MatchesDecimalAmount() {
+        Random random = new Random(20230403L);
+        for (int i = 0; i < SAMPLES; i++) {
+            long cents = random.nextInt(1_000_000) - 10_000;
+            int spendMultiplierOverFifty = randomMultiplier(random);
+            int spendMultiplierOverHundred = randomMultiplier(random);
+            assertEquals(
+                    LoyaltyPointsUtil.calculatePointsExact(BigDecimal.valueOf(cents, 2), spendMultiplierOverFifty,
+                            spendMultiplierOverHundred),
+                    LoyaltyPointsUtil.calculatePointsInCents(cents, spendMultiplierOverFifty,
+                            spendMultiplierOverHundred),
+                    "cents=" + cents);
+        }
+    }
+
+    @Test
+    public void testCalculatePointsInCents_OutOfRange_Exception() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LoyaltyPointsUtil.calculatePointsInCents(LoyaltyPointsUtil.MAX_FIXED_POINT_CENTS + 1, 1, 2));
+    }
+
+    private static int randomMultiplier(Random random) {
+        return random.nextInt(4) == 0 ? MULTIPLIERS[random.nextInt(MULTIPLIERS.length)] : random.nextInt(11);
+    }
+
+    private static void assertEquivalent(BigDecimal amount, int spendMultiplierOverFifty,
+            int spendMultiplierOverHundred) {
+        assertEquals(
+                LoyaltyPointsUtil.calculatePointsExact(amount, spendMultiplierOverFifty, spendMultiplierOverHundred),
+                LoyaltyPointsUtil.calculatePoints(amount, spendMultiplierOverFifty, spendMultiplierOverHundred),
+                () -> "amount=" + amount + ", multipliers=" + spendMultiplierOverFifty + "/"
+                        + spendMultiplierOverHundred);
+    }
+}